@@ -1,10 +1,17 @@
 plugins {
     id("java")
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.eclipse.dataplane"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -16,6 +23,7 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
     testImplementation("com.fasterxml.jackson.core:jackson-databind:2.20.0")
+    testImplementation("com.h2database:h2:2.3.232")
     testImplementation("io.rest-assured:rest-assured:5.5.6")
     testImplementation("org.assertj:assertj-core:3.27.6")
     testImplementation("org.awaitility:awaitility:4.3.0")
@@ -24,6 +32,7 @@ dependencies {
     testImplementation("org.glassfish.jersey.containers:jersey-container-servlet:3.1.11")
     testImplementation("org.glassfish.jersey.inject:jersey-hk2:3.1.11")
     testImplementation("org.glassfish.jersey.media:jersey-media-json-jackson:3.1.11")
+    testImplementation("org.glassfish.jersey.media:jersey-media-sse:3.1.11")
     testImplementation("org.mockito:mockito-core:5.20.0")
     testImplementation("org.slf4j:slf4j-simple:2.0.17")
     testImplementation("org.wiremock:wiremock-jetty12:3.13.1")
@@ -32,3 +41,9 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+jmh {
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+}
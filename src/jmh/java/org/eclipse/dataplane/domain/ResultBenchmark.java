@@ -0,0 +1,36 @@
+package org.eclipse.dataplane.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Chains of results, as the ones of every dataplane operation. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+public class ResultBenchmark {
+
+    private final String content = "content";
+    private final Exception failure = new IllegalStateException("failure");
+
+    @Benchmark
+    public Result<Void> successChain() {
+        return Result.success(content)
+                .map(String::length)
+                .compose(length -> Result.success())
+                .map(nothing -> nothing);
+    }
+
+    @Benchmark
+    public Result<Void> failureChain() {
+        return Result.<String>failure(failure)
+                .map(String::length)
+                .compose(length -> Result.success())
+                .map(nothing -> nothing);
+    }
+
+    @Benchmark
+    public Result<String> attempt() {
+        return Result.attempt(() -> content);
+    }
+}
@@ -0,0 +1,40 @@
+package org.eclipse.dataplane.domain.dataflow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Direction checks of a data flow, against splitting the transfer type on every check as it used to be done.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+public class TransferTypeBenchmark {
+
+    @Param({"HttpData-PUSH", "AmazonS3-PULL-json"})
+    private String transferType;
+
+    private DataFlow dataFlow;
+
+    @Setup
+    public void setUp() {
+        dataFlow = DataFlow.newInstance().id("id").transferType(transferType).build();
+    }
+
+    @Benchmark
+    public TransferType parse() {
+        return TransferType.parse(transferType);
+    }
+
+    @Benchmark
+    public boolean isPush() {
+        return dataFlow.isPush();
+    }
+
+    @Benchmark
+    public boolean isPushBySplitting() {
+        return transferType.split("-")[1].equals("PUSH");
+    }
+}
@@ -0,0 +1,58 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.STARTED;
+
+/**
+ * Encoding and decoding of a data flow with all its fields set. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+public class DataFlowCodecBenchmark {
+
+    private DataFlow dataFlow;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        var dataAddress = new DataAddress("DataAddress", "https://w3id.org/idsa/v4.1/HTTP", "http://localhost/data",
+                List.of(new DataAddress.EndpointProperty("String", "authorization", "token")));
+        dataFlow = DataFlow.newInstance()
+                .id("e5f2c1a4-3b6d-4c8e-9f1a-2b3c4d5e6f70")
+                .state(STARTED)
+                .transferType("HttpData-PUSH")
+                .dataAddress(dataAddress)
+                .callbackAddress("http://localhost/control-plane/callback")
+                .labels(List.of("tenant-a", "priority"))
+                .metadata(Map.of("agreementId", "agreement", "limits", Map.of("bytes", 1024, "files", List.of(1, 2))))
+                .pendingNotifications(List.of(DataFlowNotification.completed()))
+                .version(3)
+                .build();
+        encoded = DataFlowCodec.encode(dataFlow);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return DataFlowCodec.encode(dataFlow);
+    }
+
+    @Benchmark
+    public DataFlow decode() {
+        return DataFlowCodec.decode(ByteBuffer.wrap(encoded));
+    }
+
+    @Benchmark
+    public String decodeId() {
+        return DataFlowCodec.decodeId(ByteBuffer.wrap(encoded));
+    }
+}
@@ -0,0 +1,54 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.STARTED;
+
+/**
+ * Concurrent reads and read-modify-save cycles on random flows, as signaling requests and callback continuations do.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class InMemoryDataFlowStoreBenchmark {
+
+    @Param({"10000"})
+    private int flows;
+
+    private InMemoryDataFlowStore store;
+
+    @Setup
+    public void setUp() {
+        store = new InMemoryDataFlowStore();
+        for (var i = 0; i < flows; i++) {
+            store.save(DataFlow.newInstance().id("flow-" + i).state(STARTED).transferType("HttpData-PUSH")
+                    .labels(List.of("label")).callbackAddress("http://localhost/callback").build());
+        }
+    }
+
+    @Benchmark
+    public Object findById() {
+        return store.findById(randomId());
+    }
+
+    /**
+     * Conflicting saves fail fast, as they would in the dataplane, so they count as operations as well.
+     */
+    @Benchmark
+    public Object findAndSave() {
+        return store.save(store.findById(randomId()).getContent());
+    }
+
+    private String randomId() {
+        return "flow-" + ThreadLocalRandom.current().nextInt(flows);
+    }
+}
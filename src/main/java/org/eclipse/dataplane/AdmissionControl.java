@@ -0,0 +1,126 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.TransferType;
+import org.eclipse.dataplane.logic.AdmissionPolicy;
+import org.eclipse.dataplane.logic.DataFlowListener;
+import org.eclipse.dataplane.port.exception.AdmissionRejectedException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.eclipse.dataplane.port.exception.AdmissionRejectedException.Limit.ACTIVE_FLOWS;
+import static org.eclipse.dataplane.port.exception.AdmissionRejectedException.Limit.ACTIVE_FLOWS_PER_TRANSFER_TYPE;
+import static org.eclipse.dataplane.port.exception.AdmissionRejectedException.Limit.IN_FLIGHT_HANDLERS;
+
+/**
+ * Enforces the {@link AdmissionPolicy}.
+ * <p>
+ * A new data flow reserves a slot before its handler runs, the slot is confirmed when the flow gets saved and freed
+ * when it's saved as completed or terminated. A slot that is never confirmed, because the handler or the save failed,
+ * is released by the caller.
+ */
+class AdmissionControl implements DataFlowListener {
+
+    private final AdmissionPolicy policy;
+    private final AtomicInteger inFlightHandlers = new AtomicInteger();
+    private final Map<String, Slot> activeFlows = new HashMap<>();
+    private final Map<TransferType, Integer> activeFlowsPerTransferType = new HashMap<>();
+
+    AdmissionControl(AdmissionPolicy policy) {
+        this.policy = policy;
+    }
+
+    Result<Void> acquireHandler() {
+        if (inFlightHandlers.incrementAndGet() > policy.getMaxInFlightHandlers()) {
+            inFlightHandlers.decrementAndGet();
+            return reject("too many handlers in flight", IN_FLIGHT_HANDLERS);
+        }
+        return Result.success();
+    }
+
+    void releaseHandler() {
+        inFlightHandlers.decrementAndGet();
+    }
+
+    /**
+     * Reserve a slot for the data flow, unless it's already active.
+     */
+    synchronized Result<Void> reserve(String flowId, TransferType transferType) {
+        if (!policy.limitsActiveFlows() || activeFlows.containsKey(flowId)) {
+            return Result.success();
+        }
+        if (activeFlows.size() >= policy.getMaxActiveFlows()) {
+            return reject("too many active data flows", ACTIVE_FLOWS);
+        }
+        if (activeFlowsPerTransferType.getOrDefault(transferType, 0) >= policy.getMaxActiveFlows(transferType == null ? null : transferType.value())) {
+            return reject("too many active data flows of type " + transferType, ACTIVE_FLOWS_PER_TRANSFER_TYPE);
+        }
+        add(flowId, new Slot(transferType));
+        return Result.success();
+    }
+
+    /**
+     * Release the slot reserved for the data flow, if it has not been confirmed by a save.
+     */
+    synchronized void release(String flowId) {
+        var slot = activeFlows.get(flowId);
+        if (slot != null && !slot.confirmed) {
+            remove(flowId);
+        }
+    }
+
+    @Override
+    public synchronized void saved(DataFlow dataFlow) {
+        var state = dataFlow.getState();
+        if (state == DataFlow.State.COMPLETED || state == DataFlow.State.TERMINATED) {
+            remove(dataFlow.getId());
+            return;
+        }
+        var slot = activeFlows.get(dataFlow.getId());
+        if (slot == null) {
+            slot = new Slot(dataFlow.getParsedTransferType());
+            add(dataFlow.getId(), slot);
+        }
+        slot.confirmed = true;
+    }
+
+    /**
+     * Count a data flow found in the store at startup, unless a more recent save already did.
+     */
+    synchronized void restore(DataFlow dataFlow) {
+        var state = dataFlow.getState();
+        if (state != DataFlow.State.COMPLETED && state != DataFlow.State.TERMINATED && !activeFlows.containsKey(dataFlow.getId())) {
+            var slot = new Slot(dataFlow.getParsedTransferType());
+            slot.confirmed = true;
+            add(dataFlow.getId(), slot);
+        }
+    }
+
+    private void add(String flowId, Slot slot) {
+        activeFlows.put(flowId, slot);
+        activeFlowsPerTransferType.merge(slot.transferType, 1, Integer::sum);
+    }
+
+    private void remove(String flowId) {
+        var slot = activeFlows.remove(flowId);
+        if (slot != null) {
+            activeFlowsPerTransferType.computeIfPresent(slot.transferType, (type, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    private Result<Void> reject(String message, AdmissionRejectedException.Limit limit) {
+        return Result.failure(new AdmissionRejectedException(message, limit, policy.getRetryAfter()));
+    }
+
+    private static class Slot {
+        private final TransferType transferType;
+        private boolean confirmed;
+
+        Slot(TransferType transferType) {
+            this.transferType = transferType;
+        }
+    }
+}
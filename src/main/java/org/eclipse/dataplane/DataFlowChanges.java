@@ -0,0 +1,110 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.logic.DataFlowListener;
+import org.eclipse.dataplane.port.store.AsyncDataFlowStore;
+import org.eclipse.dataplane.port.store.DataFlowQuery;
+import org.eclipse.dataplane.port.store.Page;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Notifies the saved data flows to the registered listeners, and to the ones waiting for a change of a specific flow.
+ * The waiters are indexed by flow id, so a save only costs a lookup for the flows nobody is waiting for.
+ */
+class DataFlowChanges {
+
+    private final List<DataFlowListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<String, Set<CompletableFuture<DataFlow>>> waiters = new ConcurrentHashMap<>();
+
+    void addListener(DataFlowListener listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(DataFlowListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get a future that completes with the data flow the next time it is saved.
+     * Cancelling the future stops waiting.
+     */
+    CompletableFuture<DataFlow> nextChange(String flowId) {
+        var waiter = new CompletableFuture<DataFlow>();
+        waiters.compute(flowId, (id, flowWaiters) -> {
+            var updated = flowWaiters == null ? ConcurrentHashMap.<CompletableFuture<DataFlow>>newKeySet() : flowWaiters;
+            updated.add(waiter);
+            return updated;
+        });
+        waiter.whenComplete((dataFlow, throwable) -> waiters.computeIfPresent(flowId, (id, flowWaiters) -> {
+            flowWaiters.remove(waiter);
+            return flowWaiters.isEmpty() ? null : flowWaiters;
+        }));
+        return waiter;
+    }
+
+    /**
+     * Decorate the store, so that its successful saves are notified.
+     */
+    AsyncDataFlowStore observe(AsyncDataFlowStore store) {
+        return new AsyncDataFlowStore() {
+            @Override
+            public CompletionStage<Result<Void>> save(DataFlow dataFlow) {
+                return store.save(dataFlow).thenApply(result -> {
+                    if (result.succeeded()) {
+                        saved(dataFlow);
+                    }
+                    return result;
+                });
+            }
+
+            @Override
+            public CompletionStage<List<Result<Void>>> saveAll(List<DataFlow> dataFlows) {
+                return store.saveAll(dataFlows).thenApply(results -> {
+                    for (var i = 0; i < dataFlows.size(); i++) {
+                        if (results.get(i).succeeded()) {
+                            saved(dataFlows.get(i));
+                        }
+                    }
+                    return results;
+                });
+            }
+
+            @Override
+            public CompletionStage<Result<DataFlow>> findById(String flowId) {
+                return store.findById(flowId);
+            }
+
+            @Override
+            public CompletionStage<Result<Void>> delete(String flowId) {
+                return store.delete(flowId);
+            }
+
+            @Override
+            public CompletionStage<Result<Page<DataFlow>>> query(DataFlowQuery query, String cursor, int limit) {
+                return store.query(query, cursor, limit);
+            }
+        };
+    }
+
+    private void saved(DataFlow dataFlow) {
+        var flowWaiters = waiters.get(dataFlow.getId());
+        if (flowWaiters != null) {
+            flowWaiters.forEach(waiter -> waiter.complete(dataFlow));
+        }
+        for (var listener : listeners) {
+            try {
+                listener.saved(dataFlow);
+            } catch (RuntimeException ignored) {
+                // a failing listener must not affect the save nor the other listeners
+            }
+        }
+    }
+}
@@ -2,42 +2,99 @@ package org.eclipse.dataplane;
 
 import org.eclipse.dataplane.domain.Result;
 import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowBatchTerminateMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
 import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowResponseMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowStartMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowStartedNotificationMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowStatusResponseMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.logic.AdmissionPolicy;
+import org.eclipse.dataplane.logic.DataFlowListener;
+import org.eclipse.dataplane.logic.HandlerTimeouts;
+import org.eclipse.dataplane.logic.HandlerType;
 import org.eclipse.dataplane.logic.OnCompleted;
+import org.eclipse.dataplane.logic.OnCompletedAsync;
 import org.eclipse.dataplane.logic.OnPrepare;
+import org.eclipse.dataplane.logic.OnPrepareAsync;
 import org.eclipse.dataplane.logic.OnStart;
+import org.eclipse.dataplane.logic.OnStartAsync;
 import org.eclipse.dataplane.logic.OnStarted;
+import org.eclipse.dataplane.logic.OnStartedAsync;
 import org.eclipse.dataplane.logic.OnTerminate;
+import org.eclipse.dataplane.logic.OnTerminateAsync;
+import org.eclipse.dataplane.logic.WatchdogPolicy;
 import org.eclipse.dataplane.port.DataPlaneSignalingApiController;
+import org.eclipse.dataplane.port.callback.CallbackClient;
+import org.eclipse.dataplane.port.callback.CircuitBreakerPolicy;
+import org.eclipse.dataplane.port.callback.NotificationDispatcher;
+import org.eclipse.dataplane.port.callback.RetryPolicy;
+import org.eclipse.dataplane.port.exception.IllegalTransitionException;
+import org.eclipse.dataplane.port.store.AsyncDataFlowStore;
+import org.eclipse.dataplane.port.store.DataFlowQuery;
 import org.eclipse.dataplane.port.store.DataFlowStore;
 import org.eclipse.dataplane.port.store.InMemoryDataFlowStore;
+import org.eclipse.dataplane.util.HashedWheelTimer;
+import org.eclipse.dataplane.util.Mailboxes;
 
-import java.net.URI;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
-import static java.util.concurrent.CompletableFuture.delayedExecutor;
-
-public class Dataplane {
-
-    private final DataFlowStore store = new InMemoryDataFlowStore();
+/**
+ * Entry point of the SDK, built through {@link #newInstance()}. Once not needed anymore it should be closed, to
+ * release the threads it created.
+ */
+public class Dataplane implements AutoCloseable {
+
+    private DataFlowStore store = new InMemoryDataFlowStore();
+    private Executor storeExecutor;
+    private Executor handlerExecutor;
+    private Mailboxes mailboxes;
+    private AsyncDataFlowStore asyncStore;
+    private final DataFlowChanges changes = new DataFlowChanges();
     private String id;
-    private OnPrepare onPrepare = _m -> Result.failure(new UnsupportedOperationException("onPrepare is not implemented"));
-    private OnStart onStart = _m -> Result.failure(new UnsupportedOperationException("onStart is not implemented"));
-    private OnStarted onStarted = _m -> Result.failure(new UnsupportedOperationException("onStarted is not implemented"));;
-    private OnCompleted onCompleted = _m -> Result.failure(new UnsupportedOperationException("onCompleted is not implemented"));
-    private OnTerminate onTerminate = _m -> Result.failure(new UnsupportedOperationException("onTerminate is not implemented"));
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private OnPrepareAsync onPrepare = _m -> notImplemented("onPrepare");
+    private OnStartAsync onStart = _m -> notImplemented("onStart");
+    private OnStartedAsync onStarted = _m -> notImplemented("onStarted");
+    private OnCompletedAsync onCompleted = _m -> notImplemented("onCompleted");
+    private OnTerminateAsync onTerminate = _m -> notImplemented("onTerminate");
+    private HttpClient httpClient = CallbackClient.defaultHttpClient();
+    private Duration callbackRequestTimeout = Duration.ofSeconds(10);
+    private RetryPolicy callbackRetryPolicy = RetryPolicy.newInstance().build();
+    private int maxConcurrentCallbacksPerHost = 8;
+    private int maxWaitingCallbacksPerHost = 1000;
+    private CircuitBreakerPolicy callbackCircuitBreakerPolicy = CircuitBreakerPolicy.newInstance().build();
+    private CallbackClient callbackClient;
+    private NotificationDispatcher notificationDispatcher;
+    private Duration messageDeduplicationWindow = Duration.ofMinutes(10);
+    private int maxDeduplicatedMessages = 10_000;
+    private MessageDeduplicator deduplicator;
+    private HandlerTimeouts handlerTimeouts = HandlerTimeouts.newInstance().build();
+    private HashedWheelTimer timer;
+    private HandlerInvoker handlerInvoker;
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.newInstance().build();
+    private AdmissionControl admission;
+    private WatchdogPolicy watchdogPolicy = WatchdogPolicy.newInstance().build();
+    private Watchdog watchdog;
+    private Duration pendingNotificationsSweepInterval;
+    private final List<ExecutorService> ownedExecutors = new ArrayList<>();
+    private volatile boolean closed;
 
     public static Builder newInstance() {
         return new Builder();
@@ -48,6 +105,31 @@ public class Dataplane {
     }
 
     public Result<DataFlowResponseMessage> prepare(DataFlowPrepareMessage message) {
+        return await(prepareAsync(message));
+    }
+
+    public CompletionStage<Result<DataFlowResponseMessage>> prepareAsync(DataFlowPrepareMessage message) {
+        return deduplicator.deduplicate("prepare", message.processId(), message.messageId(),
+                () -> mailboxes.submit(message.processId(), () -> handlePrepare(message)
+                        .thenCompose(handled -> handled.composeAsync(this::save))));
+    }
+
+    /**
+     * Prepare many data flows: the handlers are invoked in parallel on the handler executor, and the prepared data
+     * flows are saved all together.
+     *
+     * @param messages the prepare messages.
+     * @return the result of every message, in the same order.
+     */
+    public List<Result<DataFlowResponseMessage>> prepareAll(List<DataFlowPrepareMessage> messages) {
+        return prepareAllAsync(messages).toCompletableFuture().join();
+    }
+
+    public CompletionStage<List<Result<DataFlowResponseMessage>>> prepareAllAsync(List<DataFlowPrepareMessage> messages) {
+        return handleAll(messages, DataFlowPrepareMessage::processId, this::handlePrepare);
+    }
+
+    private CompletionStage<Result<Handled<DataFlowResponseMessage>>> handlePrepare(DataFlowPrepareMessage message) {
         var initialDataFlow = DataFlow.newInstance()
                 .id(message.processId())
                 .state(DataFlow.State.INITIATING)
@@ -57,25 +139,44 @@ public class Dataplane {
                 .transferType(message.transferType())
                 .build();
 
-        return onPrepare.action(initialDataFlow)
-                .compose(dataFlow -> {
-                    if (dataFlow.isInitiating()) {
-                        dataFlow.transitionToPrepared();
-                    }
+        return handleCreation(initialDataFlow, HandlerType.PREPARE, onPrepare::action, DataFlow::transitionToPreparing, dataFlow -> {
+            if (dataFlow.isInitiating()) {
+                dataFlow.transitionToPrepared();
+            }
 
-                    DataFlowResponseMessage response;
-                    if (dataFlow.isPrepared() && dataFlow.isPush()) {
-                        response = new DataFlowResponseMessage(id, dataFlow.getDataAddress(), initialDataFlow.getState().name(), null);
-                    } else {
-                        response = new DataFlowResponseMessage(id, null, initialDataFlow.getState().name(), null);
-                    }
+            if (dataFlow.isPrepared() && dataFlow.isPush()) {
+                return new DataFlowResponseMessage(id, dataFlow.getDataAddress(), dataFlow.getState().name(), null);
+            } else {
+                return new DataFlowResponseMessage(id, null, dataFlow.getState().name(), null);
+            }
+        }, dataFlow -> DataFlowNotification.prepared(id, dataFlow));
+    }
 
-                    return store.save(dataFlow).map(it -> response);
-                });
+    public Result<DataFlowResponseMessage> start(DataFlowStartMessage message) {
+        return await(startAsync(message));
     }
 
+    public CompletionStage<Result<DataFlowResponseMessage>> startAsync(DataFlowStartMessage message) {
+        return deduplicator.deduplicate("start", message.processId(), message.messageId(),
+                () -> mailboxes.submit(message.processId(), () -> handleStart(message)
+                        .thenCompose(handled -> handled.composeAsync(this::save))));
+    }
 
-    public Result<DataFlowResponseMessage> start(DataFlowStartMessage message) {
+    /**
+     * Start many data flows, as {@link #prepareAll(List)} does.
+     *
+     * @param messages the start messages.
+     * @return the result of every message, in the same order.
+     */
+    public List<Result<DataFlowResponseMessage>> startAll(List<DataFlowStartMessage> messages) {
+        return startAllAsync(messages).toCompletableFuture().join();
+    }
+
+    public CompletionStage<List<Result<DataFlowResponseMessage>>> startAllAsync(List<DataFlowStartMessage> messages) {
+        return handleAll(messages, DataFlowStartMessage::processId, this::handleStart);
+    }
+
+    private CompletionStage<Result<Handled<DataFlowResponseMessage>>> handleStart(DataFlowStartMessage message) {
         var initialDataFlow = DataFlow.newInstance()
                 .id(message.processId())
                 .state(DataFlow.State.INITIATING)
@@ -84,96 +185,269 @@ public class Dataplane {
                 .transferType(message.transferType())
                 .build();
 
-        return onStart.action(initialDataFlow)
-                .compose(dataFlow -> {
-                    if (dataFlow.isInitiating()) {
-                        dataFlow.transitionToStarted();
+        return handleCreation(initialDataFlow, HandlerType.START, onStart::action, DataFlow::transitionToStarting, dataFlow -> {
+            if (dataFlow.isInitiating()) {
+                dataFlow.transitionToStarted();
+            }
+
+            if (dataFlow.isStarted() && dataFlow.isPull()) {
+                return new DataFlowResponseMessage(id, dataFlow.getDataAddress(), dataFlow.getState().name(), null);
+            } else {
+                return new DataFlowResponseMessage(id, null, dataFlow.getState().name(), null);
+            }
+        }, dataFlow -> DataFlowNotification.started(id, dataFlow));
+    }
+
+    /**
+     * Invoke the handler of a message that creates a data flow, if the admission policy allows it.
+     * If the handler completes right away, the data flow is saved with its outcome. Otherwise, it's saved in the
+     * pending state, e.g. PREPARING, and the outcome is applied and notified to the control plane once the handler
+     * completes.
+     *
+     * @param initialDataFlow the data flow to be handled.
+     * @param type the handler type.
+     * @param handler the handler.
+     * @param pending transitions the data flow to the pending state.
+     * @param completed transitions the data flow after the handler completed, and creates the response.
+     * @param notification creates the notification sent when the handler completes asynchronously.
+     */
+    private CompletionStage<Result<Handled<DataFlowResponseMessage>>> handleCreation(
+            DataFlow initialDataFlow, HandlerType type, Function<DataFlow, CompletionStage<Result<DataFlow>>> handler, Consumer<DataFlow> pending,
+            Function<DataFlow, DataFlowResponseMessage> completed, Function<DataFlow, DataFlowNotification> notification) {
+        // the handler could still be changing the data flow when the pending one gets saved
+        var pendingDataFlow = initialDataFlow.copy();
+        var handling = admitted(initialDataFlow, type, handler).toCompletableFuture();
+        if (handling.isDone()) {
+            return handling.thenApply(result -> result.map(dataFlow -> new Handled<>(dataFlow, completed.apply(dataFlow))));
+        }
+
+        pending.accept(pendingDataFlow);
+        var completion = handling.thenApply(result -> result.map(dataFlow -> {
+            completed.apply(dataFlow);
+            dataFlow.addPendingNotification(notification.apply(dataFlow));
+            return dataFlow;
+        }));
+        var response = new DataFlowResponseMessage(id, null, pendingDataFlow.getState().name(), null);
+        return CompletableFuture.completedFuture(Result.success(new Handled<>(pendingDataFlow, response, completion)));
+    }
+
+    /**
+     * Apply the outcome of a handler that completed asynchronously to the data flow saved as pending, and notify it to
+     * the control plane. A failed handler terminates the data flow, and the failure is notified as errored.
+     */
+    private void completeHandling(DataFlow pendingDataFlow, Result<DataFlow> outcome) {
+        mailboxes.submit(pendingDataFlow.getId(), () -> findThen(pendingDataFlow.getId(), found -> found.composeAsync(latest -> {
+                    if (latest.getState() != pendingDataFlow.getState()) {
+                        // terminated in the meantime
+                        return CompletableFuture.completedFuture(Result.<Void>success());
                     }
 
-                    DataFlowResponseMessage response;
-                    if (dataFlow.isStarted() && dataFlow.isPull()) {
-                        response = new DataFlowResponseMessage(id, dataFlow.getDataAddress(), dataFlow.getState().name(), null);
-                    } else {
-                        response = new DataFlowResponseMessage(id, null, dataFlow.getState().name(), null);
+                    DataFlow completed;
+                    try {
+                        completed = outcome.orElseThrow();
+                        completed.setVersion(latest.getVersion());
+                    } catch (Exception exception) {
+                        var reason = exception.getMessage() == null ? exception.getClass().getName() : exception.getMessage();
+                        latest.transitionToTerminated(reason);
+                        latest.addPendingNotification(DataFlowNotification.errored(reason));
+                        completed = latest;
                     }
-                    return store.save(dataFlow).map(it -> response);
+                    var toSave = completed;
+                    return asyncStore.save(toSave).thenApply(saved -> saved.map(it -> {
+                        notificationDispatcher.dispatch(toSave);
+                        return null;
+                    }));
+                })));
+    }
+
+    /**
+     * Invoke the handler, if the admission policy allows it.
+     */
+    private CompletionStage<Result<DataFlow>> admitted(DataFlow dataFlow, HandlerType type, Function<DataFlow, CompletionStage<Result<DataFlow>>> handler) {
+        return admission.reserve(dataFlow.getId(), dataFlow.getParsedTransferType())
+                .compose(reserved -> admission.acquireHandler())
+                .composeAsync(acquired -> handlerInvoker.invoke(type, handler, dataFlow)
+                        .whenComplete((result, throwable) -> admission.releaseHandler()))
+                .thenApply(result -> {
+                    if (result.failed()) {
+                        admission.release(dataFlow.getId());
+                    }
+                    return result;
                 });
     }
 
     public Result<DataFlowStatusResponseMessage> status(String dataFlowId) {
-        return store.findById(dataFlowId)
-                .map(f -> new DataFlowStatusResponseMessage(f.getId(), f.getState().name()));
+        return await(statusAsync(dataFlowId));
+    }
+
+    public CompletionStage<Result<DataFlowStatusResponseMessage>> statusAsync(String dataFlowId) {
+        return asyncStore.findById(dataFlowId)
+                .thenApply(found -> found.map(f -> new DataFlowStatusResponseMessage(f.getId(), f.getState().name())));
+    }
+
+    /**
+     * Wait for the data flow to change from a known version.
+     *
+     * @param dataFlowId the data flow id.
+     * @param knownVersion the version known by the caller.
+     * @param timeout the max time to wait.
+     * @return a stage that completes with the data flow as soon as its version differs from the known one, or with
+     * the unchanged data flow once the timeout elapsed.
+     */
+    public CompletionStage<Result<DataFlow>> statusChangeAsync(String dataFlowId, long knownVersion, Duration timeout) {
+        var change = changes.nextChange(dataFlowId);
+        return asyncStore.findById(dataFlowId)
+                .whenComplete((found, throwable) -> {
+                    if (throwable != null) {
+                        change.cancel(false);
+                    }
+                })
+                .thenCompose(found -> {
+                    if (found.failed() || found.getContent().getVersion() != knownVersion || timeout.isZero()) {
+                        change.cancel(false);
+                        return CompletableFuture.completedFuture(found);
+                    }
+                    return change.completeOnTimeout(found.getContent(), timeout.toMillis(), TimeUnit.MILLISECONDS)
+                            .thenApply(Result::success);
+                });
+    }
+
+    /**
+     * Register a listener notified every time a data flow is saved.
+     */
+    public void addListener(DataFlowListener listener) {
+        changes.addListener(listener);
+    }
+
+    public void removeListener(DataFlowListener listener) {
+        changes.removeListener(listener);
     }
 
     public Result<Void> terminate(String dataFlowId, DataFlowTerminateMessage message) {
-        return store.findById(dataFlowId)
+        return await(terminateAsync(dataFlowId, message));
+    }
+
+    public CompletionStage<Result<Void>> terminateAsync(String dataFlowId, DataFlowTerminateMessage message) {
+        return mailboxes.submit(dataFlowId, () -> findThen(dataFlowId, found -> handleTerminate(found, message.reason()))
+                .thenCompose(handled -> handled.composeAsync(this::save)));
+    }
+
+    /**
+     * Terminate many data flows, as {@link #prepareAll(List)} does.
+     *
+     * @param messages the terminate messages.
+     * @return the result of every message, in the same order.
+     */
+    public List<Result<Void>> terminateAll(List<DataFlowBatchTerminateMessage> messages) {
+        return terminateAllAsync(messages).toCompletableFuture().join();
+    }
+
+    public CompletionStage<List<Result<Void>>> terminateAllAsync(List<DataFlowBatchTerminateMessage> messages) {
+        return handleAll(messages, DataFlowBatchTerminateMessage::dataFlowId,
+                message -> findThen(message.dataFlowId(), found -> handleTerminate(found, message.reason())));
+    }
+
+    private CompletionStage<Result<Handled<Void>>> handleTerminate(Result<DataFlow> found, String reason) {
+        return found
                 .map(dataFlow -> {
-                    dataFlow.transitionToTerminated(message.reason());
+                    dataFlow.transitionToTerminated(reason);
                     return dataFlow;
                 })
-                .compose(onTerminate::action)
-                .compose(store::save)
-                .map(it -> null);
+                .composeAsync(dataFlow -> handlerInvoker.invoke(HandlerType.TERMINATE, onTerminate::action, dataFlow))
+                .thenApply(handled -> handled.map(dataFlow -> new Handled<>(dataFlow, null)));
     }
 
     /**
      * Notify the control plane that the data flow has been completed.
+     * The notification is persisted with the data flow before being sent, and the data flow transitions to COMPLETED
+     * once the control plane acknowledged it. If it cannot be delivered it remains pending, and its delivery is
+     * resumed when the {@link Dataplane} is built again on the same store.
      *
      * @param dataFlowId
      */
     public Result<CompletableFuture<Void>> notifyCompleted(String dataFlowId) {
-        return store.findById(dataFlowId)
-                .map(dataFlow -> transferDataFlowCompleted(dataFlow)
-                        .thenApply(r -> {
-                            dataFlow.transitionToCompleted();
-                            store.save(dataFlow);
-                            return null;
-                        }));
-    }
-
-    private CompletableFuture<HttpResponse<Void>> transferDataFlowCompleted(DataFlow dataFlow) {
-        var endpoint = dataFlow.getCallbackAddress() + "/transfers/" + dataFlow.getId() + "/dataflow/completed";
-
-        var request = HttpRequest.newBuilder()
-                .uri(URI.create(endpoint))
-                .header("content-type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString("{}")) // TODO DataFlowCompletedMessage not defined
-                .build();
-
-        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
-                .thenApply(r -> {
-                    var successful = r.statusCode() >= 200 && r.statusCode() < 300;
-                    if (successful) {
-                        return CompletableFuture.completedFuture(r);
+        var notification = DataFlowNotification.completed();
+        return await(mailboxes.submit(dataFlowId, () -> findThen(dataFlowId, found -> found.composeAsync(dataFlow -> {
+                    if (!dataFlow.getState().canTransitionTo(DataFlow.State.COMPLETED)) {
+                        throw new IllegalTransitionException("DataFlow %s cannot be completed in state %s".formatted(dataFlowId, dataFlow.getState()));
                     }
+                    dataFlow.addPendingNotification(notification);
+                    return asyncStore.save(dataFlow).thenApply(saved -> saved.map(it -> dataFlow));
+                }))))
+                .map(dataFlow -> notificationDispatcher.dispatch(dataFlow, notification));
+    }
 
-                    return CompletableFuture.supplyAsync(() -> transferDataFlowCompleted(dataFlow), delayedExecutor(500, TimeUnit.MILLISECONDS)).thenCompose(Function.identity());
-                })
-                .exceptionally(CompletableFuture::failedFuture)
-                .thenCompose(Function.identity());
+    /**
+     * Metrics about the handlers, by type.
+     */
+    public Map<HandlerType, HandlerMetrics> handlerMetrics() {
+        return handlerInvoker.metrics();
     }
 
     /**
-     * Notify the control plane that the data flow failed for some reason
+     * Metrics about the callbacks to the control plane.
+     */
+    public CallbackClient.Metrics callbackMetrics() {
+        return callbackClient.metrics();
+    }
+
+    /**
+     * Notify the control plane that the data flow failed for some reason.
+     * The data flow transitions to TERMINATED and the notification is persisted with it, to be delivered as
+     * {@link #notifyCompleted(String)} does. Use {@link #notifyErroredWithDelivery(String, Throwable)} to know whether
+     * the notification has been recorded and delivered.
      *
-     * @param dataFlow
+     * @param dataFlowId
      * @param throwable
      */
-    public void notifyErrored(String dataFlow, Throwable throwable) {
-        // TODO: implementation
+    public void notifyErrored(String dataFlowId, Throwable throwable) {
+        notifyErroredWithDelivery(dataFlowId, throwable);
+    }
+
+    /**
+     * Same as {@link #notifyErrored(String, Throwable)}, returning the delivery of the notification.
+     * Errors reported again for a flow whose errored notification is still pending are collapsed into it: the flow
+     * keeps the first reason, and only one callback is sent.
+     *
+     * @return the future that completes when the notification has been delivered, or a failure if it could not be
+     * recorded.
+     */
+    public Result<CompletableFuture<Void>> notifyErroredWithDelivery(String dataFlowId, Throwable throwable) {
+        var reason = throwable.getMessage() == null ? throwable.getClass().getName() : throwable.getMessage();
+        return await(mailboxes.submit(dataFlowId, () -> findThen(dataFlowId, found -> found.composeAsync(dataFlow -> {
+                    var pending = pendingErrored(dataFlow);
+                    if (dataFlow.getState() == DataFlow.State.TERMINATED && pending != null) {
+                        return CompletableFuture.completedFuture(Result.success(dataFlow));
+                    }
+                    dataFlow.transitionToTerminated(reason);
+                    dataFlow.addPendingNotification(DataFlowNotification.errored(reason));
+                    return asyncStore.save(dataFlow).thenApply(saved -> saved.map(it -> dataFlow));
+                }))))
+                .map(dataFlow -> notificationDispatcher.dispatch(dataFlow, pendingErrored(dataFlow)));
+    }
+
+    private static DataFlowNotification pendingErrored(DataFlow dataFlow) {
+        return dataFlow.getPendingNotifications().stream()
+                .filter(notification -> notification.type() == DataFlowNotification.Type.ERRORED)
+                .findFirst()
+                .orElse(null);
     }
 
     public Result<Void> started(String flowId, DataFlowStartedNotificationMessage startedNotificationMessage) {
-        return store.findById(flowId)
-                .map(dataFlow -> {
-                    dataFlow.setDataAddress(startedNotificationMessage.dataAddress());
-                    return dataFlow;
-                })
-                .compose(onStarted::action)
-                .compose(dataFlow -> {
+        return await(startedAsync(flowId, startedNotificationMessage));
+    }
+
+    public CompletionStage<Result<Void>> startedAsync(String flowId, DataFlowStartedNotificationMessage startedNotificationMessage) {
+        return mailboxes.submit(flowId, () -> findThen(flowId, found -> found
+                        .map(dataFlow -> {
+                            dataFlow.setDataAddress(startedNotificationMessage.dataAddress());
+                            return dataFlow;
+                        })
+                        .composeAsync(dataFlow -> handlerInvoker.invoke(HandlerType.STARTED, onStarted::action, dataFlow)))
+                .thenCompose(handled -> handled.composeAsync(dataFlow -> {
                     dataFlow.transitionToStarted();
-                    return store.save(dataFlow);
-                });
+                    return asyncStore.save(dataFlow);
+                })));
     }
 
     /**
@@ -183,11 +457,256 @@ public class Dataplane {
      * @return
      */
     public Result<Void> completed(String flowId) {
-        return store.findById(flowId).compose(onCompleted::action)
-                .compose(dataFlow -> {
+        return await(completedAsync(flowId));
+    }
+
+    public CompletionStage<Result<Void>> completedAsync(String flowId) {
+        return mailboxes.submit(flowId, () -> findThen(flowId, found -> found.composeAsync(dataFlow -> handlerInvoker.invoke(HandlerType.COMPLETED, onCompleted::action, dataFlow)))
+                .thenCompose(handled -> handled.composeAsync(dataFlow -> {
                     dataFlow.transitionToCompleted();
-                    return store.save(dataFlow);
+                    return asyncStore.save(dataFlow);
+                })));
+    }
+
+    /**
+     * Terminate a data flow that has been in the same state for longer than the watchdog allows: its onTerminate
+     * handler is invoked and the control plane is notified with an error. The data flow is terminated even if the
+     * handler fails, so that it doesn't stay stale forever.
+     */
+    private void terminateStale(String flowId, DataFlow.State state) {
+        mailboxes.submit(flowId, () -> findThen(flowId, found -> found.composeAsync(dataFlow -> {
+                    if (dataFlow.getState() != state) {
+                        // changed in the meantime
+                        return CompletableFuture.completedFuture(Result.<Void>success());
+                    }
+
+                    var reason = "Data flow stayed %s for longer than %s".formatted(state, watchdogPolicy.getDeadline(state));
+                    dataFlow.transitionToTerminated(reason);
+                    return handlerInvoker.invoke(HandlerType.TERMINATE, onTerminate::action, dataFlow.copy())
+                            .thenCompose(handled -> {
+                                var terminated = handled.succeeded() ? handled.getContent() : dataFlow;
+                                terminated.addPendingNotification(DataFlowNotification.errored(reason));
+                                return asyncStore.save(terminated).thenApply(saved -> saved.map(it -> {
+                                    notificationDispatcher.dispatch(terminated);
+                                    return null;
+                                }));
+                            });
+                })));
+    }
+
+    /**
+     * Watch the data flows left by a previous run, without blocking the build.
+     */
+    private void restoreWatchedFlows() {
+        storeExecutor.execute(() -> Arrays.stream(DataFlow.State.values())
+                .filter(state -> watchdogPolicy.getDeadline(state) != null)
+                .flatMap(state -> store.stream(DataFlowQuery.newInstance().state(state).build()))
+                .forEach(watchdog::restore));
+    }
+
+    /**
+     * Count the active data flows left by a previous run, without blocking the build.
+     */
+    private void restoreActiveFlows() {
+        storeExecutor.execute(() -> store.stream(DataFlowQuery.newInstance().build()).forEach(admission::restore));
+    }
+
+    /**
+     * Dispatch the notifications left pending, e.g. by a previous run, without blocking the caller.
+     */
+    private void resumePendingNotifications() {
+        var pending = DataFlowQuery.newInstance().withPendingNotifications().build();
+        storeExecutor.execute(() -> store.stream(pending).forEach(notificationDispatcher::dispatch));
+    }
+
+    /**
+     * Dispatch the pending notifications again at every interval, so that the ones whose callback retries have been
+     * exhausted are eventually delivered. The ones being delivered are not sent twice.
+     */
+    private void schedulePendingNotificationsSweep() {
+        timer.schedule(() -> {
+            if (closed) {
+                return;
+            }
+            resumePendingNotifications();
+            schedulePendingNotificationsSweep();
+        }, pendingNotificationsSweepInterval);
+    }
+
+    /**
+     * Stop the timers and shut down the executors created by the builder, letting the operations already running
+     * complete. The store, the executors and the HTTP client given to the builder are not closed, as they could be
+     * shared: closing them is up to the caller.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (timer != null) {
+            timer.close();
+        }
+        ownedExecutors.forEach(ExecutorService::shutdown);
+    }
+
+    /**
+     * Find a data flow and continue the operation on its mailbox: a store that runs on an executor completes the
+     * lookup on one of its threads, on which the handlers must not run.
+     */
+    private <T> CompletionStage<T> findThen(String flowId, Function<Result<DataFlow>, CompletionStage<T>> continuation) {
+        var found = asyncStore.findById(flowId).toCompletableFuture();
+        if (found.isDone()) {
+            return found.thenCompose(continuation);
+        }
+        return found.thenComposeAsync(continuation, mailboxes.continuation(flowId));
+    }
+
+    private <R> CompletionStage<Result<R>> save(Handled<R> handled) {
+        return asyncStore.save(handled.dataFlow()).thenApply(saved -> {
+            saved(handled, saved);
+            return saved.map(it -> handled.response());
+        });
+    }
+
+    /**
+     * Once a handled data flow has been saved, wait for its handler if it's still running.
+     */
+    private void saved(Handled<?> handled, Result<Void> saved) {
+        if (saved.failed()) {
+            admission.release(handled.dataFlow().getId());
+        } else if (handled.completion() != null) {
+            handled.completion().thenAccept(outcome -> completeHandling(handled.dataFlow(), outcome));
+        }
+    }
+
+    private static CompletionStage<Result<DataFlow>> notImplemented(String handler) {
+        return CompletableFuture.completedFuture(Result.failure(new UnsupportedOperationException(handler + " is not implemented")));
+    }
+
+    /**
+     * Handle every message in the mailbox of its data flow, then save the data flows handled successfully in a single
+     * batch. The mailboxes are held until the batch is saved, so no other operation sees a flow before it's saved.
+     * Messages for the same data flow are handled in successive batches, as they would wait for each other.
+     */
+    private <M, R> CompletionStage<List<Result<R>>> handleAll(List<M> messages, Function<M, String> keyOf,
+                                                              Function<M, CompletionStage<Result<Handled<R>>>> handle) {
+        var rounds = new ArrayList<List<Integer>>();
+        var occurrences = new HashMap<String, Integer>();
+        for (var i = 0; i < messages.size(); i++) {
+            var round = occurrences.merge(keyOf.apply(messages.get(i)), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(i);
+        }
+
+        @SuppressWarnings("unchecked")
+        var results = (Result<R>[]) new Result<?>[messages.size()];
+        CompletionStage<Void> handled = CompletableFuture.completedFuture(null);
+        for (var round : rounds) {
+            handled = handled.thenCompose(nothing -> handleBatch(round.stream().map(messages::get).toList(), keyOf, handle)
+                    .thenAccept(batchResults -> {
+                        for (var i = 0; i < round.size(); i++) {
+                            results[round.get(i)] = batchResults.get(i);
+                        }
+                    }));
+        }
+        return handled.thenApply(nothing -> Arrays.asList(results));
+    }
+
+    /**
+     * Handle messages for distinct data flows and save them in a single batch, each one holding its mailbox until then.
+     */
+    private <M, R> CompletionStage<List<Result<R>>> handleBatch(List<M> messages, Function<M, String> keyOf,
+                                                                Function<M, CompletionStage<Result<Handled<R>>>> handle) {
+        var handling = new ArrayList<CompletableFuture<Result<Handled<R>>>>(messages.size());
+        var positions = new int[messages.size()];
+        var batchSaved = new CompletableFuture<List<Result<Void>>>();
+        var results = new ArrayList<CompletableFuture<Result<R>>>(messages.size());
+        for (var i = 0; i < messages.size(); i++) {
+            var message = messages.get(i);
+            var index = i;
+            var itemHandled = new CompletableFuture<Result<Handled<R>>>();
+            handling.add(itemHandled);
+            var result = mailboxes.submit(keyOf.apply(message), () -> handle.apply(message)
+                    .exceptionally(Dataplane::toFailure)
+                    .thenCompose(outcome -> {
+                        itemHandled.complete(outcome);
+                        if (outcome.failed()) {
+                            return CompletableFuture.completedFuture(outcome.map(Handled::response));
+                        }
+                        return batchSaved.thenApply(saved -> {
+                            var itemSaved = saved.get(positions[index]);
+                            saved(outcome.getContent(), itemSaved);
+                            return itemSaved.map(it -> outcome.getContent().response());
+                        });
+                    }));
+            result.whenComplete((nothing, throwable) -> {
+                if (throwable != null) {
+                    itemHandled.complete(toFailure(throwable));
+                }
+            });
+            results.add(result);
+        }
+
+        CompletableFuture.allOf(handling.toArray(CompletableFuture[]::new))
+                .thenCompose(nothing -> {
+                    var toSave = new ArrayList<DataFlow>();
+                    for (var i = 0; i < handling.size(); i++) {
+                        var outcome = handling.get(i).join();
+                        if (outcome.succeeded()) {
+                            positions[i] = toSave.size();
+                            toSave.add(outcome.getContent().dataFlow());
+                        }
+                    }
+                    return asyncStore.saveAll(toSave);
+                })
+                .whenComplete((saved, throwable) -> {
+                    if (throwable == null) {
+                        batchSaved.complete(saved);
+                    } else {
+                        batchSaved.completeExceptionally(throwable);
+                    }
                 });
+
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(nothing -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    private static <T> Result<T> toFailure(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return Result.failure(cause instanceof Exception exception ? exception : new RuntimeException(cause));
+    }
+
+    private static <T> Result<T> await(CompletionStage<Result<T>> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            return Result.failure(e.getCause() instanceof Exception exception ? exception : e);
+        }
+    }
+
+    /**
+     * Metrics about the invocations of a handler.
+     *
+     * @param invocations the completed invocations.
+     * @param failures the invocations that failed, timed out ones included.
+     * @param timeouts the invocations that timed out.
+     * @param p50 the median latency.
+     * @param p90 the 90th percentile of the latency.
+     * @param p99 the 99th percentile of the latency.
+     * @param max the max latency.
+     */
+    public record HandlerMetrics(long invocations, long failures, long timeouts, Duration p50, Duration p90, Duration p99,
+                                 Duration max) {
+    }
+
+    /**
+     * A data flow that went through its handler, and the response to be returned once it has been saved.
+     * If the handler is still running, the completion gives its outcome.
+     */
+    private record Handled<R>(DataFlow dataFlow, R response, CompletionStage<Result<DataFlow>> completion) {
+        Handled(DataFlow dataFlow, R response) {
+            this(dataFlow, response, null);
+        }
     }
 
     public static class Builder {
@@ -200,6 +719,55 @@ public class Dataplane {
             if (dataplane.id == null) {
                 dataplane.id = UUID.randomUUID().toString();
             }
+            if (dataplane.storeExecutor == null) {
+                var storeExecutor = Executors.newCachedThreadPool(runnable -> {
+                    var thread = new Thread(runnable, "dataplane-store");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                dataplane.storeExecutor = storeExecutor;
+                dataplane.ownedExecutors.add(storeExecutor);
+            }
+            if (dataplane.handlerExecutor == null) {
+                var handlerExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dataplane-handler-", 0).factory());
+                dataplane.handlerExecutor = handlerExecutor;
+                dataplane.ownedExecutors.add(handlerExecutor);
+            }
+            dataplane.mailboxes = new Mailboxes(dataplane.handlerExecutor);
+            if (dataplane.handlerTimeouts.isEnabled() || dataplane.watchdogPolicy.isEnabled()
+                    || dataplane.pendingNotificationsSweepInterval != null) {
+                dataplane.timer = new HashedWheelTimer("dataplane-timer", Duration.ofMillis(10), 512);
+            }
+            dataplane.handlerInvoker = new HandlerInvoker(dataplane.handlerTimeouts, dataplane.timer, dataplane.handlerExecutor);
+            dataplane.deduplicator = new MessageDeduplicator(dataplane.messageDeduplicationWindow, dataplane.maxDeduplicatedMessages);
+            dataplane.admission = new AdmissionControl(dataplane.admissionPolicy);
+            if (dataplane.admissionPolicy.limitsActiveFlows()) {
+                dataplane.changes.addListener(dataplane.admission);
+            }
+            if (dataplane.watchdogPolicy.isEnabled()) {
+                dataplane.watchdog = new Watchdog(dataplane.watchdogPolicy, dataplane.timer, dataplane::terminateStale);
+                dataplane.changes.addListener(dataplane.watchdog);
+            }
+            dataplane.asyncStore = dataplane.changes.observe(dataplane.store.async(dataplane.storeExecutor));
+            dataplane.callbackClient = CallbackClient.newInstance()
+                    .httpClient(dataplane.httpClient)
+                    .requestTimeout(dataplane.callbackRequestTimeout)
+                    .retryPolicy(dataplane.callbackRetryPolicy)
+                    .maxConcurrentRequestsPerHost(dataplane.maxConcurrentCallbacksPerHost)
+                    .maxWaitingRequestsPerHost(dataplane.maxWaitingCallbacksPerHost)
+                    .circuitBreakerPolicy(dataplane.callbackCircuitBreakerPolicy)
+                    .build();
+            dataplane.notificationDispatcher = new NotificationDispatcher(dataplane.asyncStore, dataplane.callbackClient, dataplane.mailboxes);
+            dataplane.resumePendingNotifications();
+            if (dataplane.pendingNotificationsSweepInterval != null) {
+                dataplane.schedulePendingNotificationsSweep();
+            }
+            if (dataplane.admissionPolicy.limitsActiveFlows()) {
+                dataplane.restoreActiveFlows();
+            }
+            if (dataplane.watchdogPolicy.isEnabled()) {
+                dataplane.restoreWatchedFlows();
+            }
             return dataplane;
         }
 
@@ -208,27 +776,179 @@ public class Dataplane {
             return this;
         }
 
+        public Builder store(DataFlowStore store) {
+            dataplane.store = store;
+            return this;
+        }
+
+        /**
+         * Executor on which the blocking operations of the store are run, so that they don't hold the request threads.
+         * Defaults to an unbounded pool of daemon threads.
+         */
+        public Builder storeExecutor(Executor storeExecutor) {
+            dataplane.storeExecutor = storeExecutor;
+            return this;
+        }
+
+        /**
+         * Executor on which the operations on the data flows, handlers included, are run. The operations on the same
+         * data flow are run one at a time, in order, while the ones on different flows run in parallel.
+         * Defaults to a virtual thread per operation.
+         */
+        public Builder handlerExecutor(Executor handlerExecutor) {
+            dataplane.handlerExecutor = handlerExecutor;
+            return this;
+        }
+
+        /**
+         * Client used to send the callbacks to the control plane. Defaults to {@link CallbackClient#defaultHttpClient()},
+         * shared by all the {@link Dataplane} instances in the JVM so that they can reuse its connections.
+         */
+        public Builder httpClient(HttpClient httpClient) {
+            dataplane.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Time after which a callback to the control plane without response fails, and gets retried.
+         */
+        public Builder callbackRequestTimeout(Duration callbackRequestTimeout) {
+            dataplane.callbackRequestTimeout = callbackRequestTimeout;
+            return this;
+        }
+
+        /**
+         * Policy used to retry the callbacks to the control plane.
+         */
+        public Builder callbackRetryPolicy(RetryPolicy callbackRetryPolicy) {
+            dataplane.callbackRetryPolicy = callbackRetryPolicy;
+            return this;
+        }
+
+        /**
+         * Max number of callbacks sent concurrently to the same control plane host, the others are queued.
+         */
+        public Builder maxConcurrentCallbacksPerHost(int maxConcurrentCallbacksPerHost) {
+            dataplane.maxConcurrentCallbacksPerHost = maxConcurrentCallbacksPerHost;
+            return this;
+        }
+
+        /**
+         * Max number of callbacks waiting to be sent to the same control plane host, the exceeding ones are rejected
+         * and retried later.
+         */
+        public Builder maxWaitingCallbacksPerHost(int maxWaitingCallbacksPerHost) {
+            dataplane.maxWaitingCallbacksPerHost = maxWaitingCallbacksPerHost;
+            return this;
+        }
+
+        /**
+         * Policy of the circuit breakers kept for every control plane host.
+         */
+        public Builder callbackCircuitBreakerPolicy(CircuitBreakerPolicy callbackCircuitBreakerPolicy) {
+            dataplane.callbackCircuitBreakerPolicy = callbackCircuitBreakerPolicy;
+            return this;
+        }
+
+        /**
+         * Time during which the response to a prepare or start message is replayed to the duplicates of the message,
+         * identified by its processId and messageId, instead of handling them again. Defaults to 10 minutes.
+         */
+        public Builder messageDeduplicationWindow(Duration messageDeduplicationWindow) {
+            dataplane.messageDeduplicationWindow = messageDeduplicationWindow;
+            return this;
+        }
+
+        /**
+         * Max number of responses kept for deduplication, the oldest ones are evicted first. Defaults to 10000.
+         */
+        public Builder maxDeduplicatedMessages(int maxDeduplicatedMessages) {
+            dataplane.maxDeduplicatedMessages = maxDeduplicatedMessages;
+            return this;
+        }
+
+        /**
+         * Interval at which the pending notifications are dispatched again, so that the ones still undelivered once
+         * the callback retries are exhausted, e.g. because the control plane was down, are delivered later.
+         * Every sweep queries the store for the data flows with pending notifications, so the interval should be
+         * chosen accordingly to the cost of that query. Disabled by default: the pending notifications are then only
+         * dispatched again when the {@link Dataplane} is built.
+         */
+        public Builder pendingNotificationsSweepInterval(Duration pendingNotificationsSweepInterval) {
+            dataplane.pendingNotificationsSweepInterval = pendingNotificationsSweepInterval;
+            return this;
+        }
+
+        /**
+         * Policy limiting the data flows accepted, the exceeding prepare and start messages are rejected.
+         */
+        public Builder admissionPolicy(AdmissionPolicy admissionPolicy) {
+            dataplane.admissionPolicy = admissionPolicy;
+            return this;
+        }
+
+        /**
+         * Policy terminating the data flows that stay in a state for too long.
+         */
+        public Builder watchdogPolicy(WatchdogPolicy watchdogPolicy) {
+            dataplane.watchdogPolicy = watchdogPolicy;
+            return this;
+        }
+
+        /**
+         * Timeouts of the handlers, after which they are cancelled and fail.
+         */
+        public Builder handlerTimeouts(HandlerTimeouts handlerTimeouts) {
+            dataplane.handlerTimeouts = handlerTimeouts;
+            return this;
+        }
+
         public Builder onPrepare(OnPrepare onPrepare) {
+            dataplane.onPrepare = dataFlow -> CompletableFuture.completedFuture(onPrepare.action(dataFlow));
+            return this;
+        }
+
+        public Builder onPrepareAsync(OnPrepareAsync onPrepare) {
             dataplane.onPrepare = onPrepare;
             return this;
         }
 
         public Builder onStart(OnStart onStart) {
+            dataplane.onStart = dataFlow -> CompletableFuture.completedFuture(onStart.action(dataFlow));
+            return this;
+        }
+
+        public Builder onStartAsync(OnStartAsync onStart) {
             dataplane.onStart = onStart;
             return this;
         }
 
         public Builder onStarted(OnStarted onStarted) {
+            dataplane.onStarted = dataFlow -> CompletableFuture.completedFuture(onStarted.action(dataFlow));
+            return this;
+        }
+
+        public Builder onStartedAsync(OnStartedAsync onStarted) {
             dataplane.onStarted = onStarted;
             return this;
         }
 
         public Builder onCompleted(OnCompleted onCompleted) {
+            dataplane.onCompleted = dataFlow -> CompletableFuture.completedFuture(onCompleted.action(dataFlow));
+            return this;
+        }
+
+        public Builder onCompletedAsync(OnCompletedAsync onCompleted) {
             dataplane.onCompleted = onCompleted;
             return this;
         }
 
         public Builder onTerminate(OnTerminate onTerminate) {
+            dataplane.onTerminate = dataFlow -> CompletableFuture.completedFuture(onTerminate.action(dataFlow));
+            return this;
+        }
+
+        public Builder onTerminateAsync(OnTerminateAsync onTerminate) {
             dataplane.onTerminate = onTerminate;
             return this;
         }
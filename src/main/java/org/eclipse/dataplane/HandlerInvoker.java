@@ -0,0 +1,165 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.logic.HandlerTimeouts;
+import org.eclipse.dataplane.logic.HandlerType;
+import org.eclipse.dataplane.port.exception.HandlerTimeoutException;
+import org.eclipse.dataplane.util.HashedWheelTimer;
+import org.eclipse.dataplane.util.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Invokes the handlers, enforcing their {@link HandlerTimeouts} and recording their metrics.
+ */
+class HandlerInvoker {
+
+    private final HandlerTimeouts timeouts;
+    private final HashedWheelTimer timer;
+    private final Executor executor;
+    private final Map<HandlerType, Stats> stats = new EnumMap<>(HandlerType.class);
+
+    /**
+     * Create the invoker.
+     *
+     * @param timeouts the timeouts.
+     * @param timer the timer firing the timeouts.
+     * @param executor the executor on which an asynchronous invocation that timed out continues, instead of the timer
+     * thread.
+     */
+    HandlerInvoker(HandlerTimeouts timeouts, HashedWheelTimer timer, Executor executor) {
+        this.timeouts = timeouts;
+        this.timer = timer;
+        this.executor = executor;
+        for (var type : HandlerType.values()) {
+            stats.put(type, new Stats());
+        }
+    }
+
+    /**
+     * Invoke a handler, turning its exceptions into a failed result.
+     */
+    CompletionStage<Result<DataFlow>> invoke(HandlerType type, Function<DataFlow, CompletionStage<Result<DataFlow>>> handler, DataFlow dataFlow) {
+        var stats = this.stats.get(type);
+        var startTime = System.nanoTime();
+        var result = new CompletableFuture<Result<DataFlow>>();
+
+        var timeout = timeouts.getTimeout(type, dataFlow.getTransferType());
+        var invocation = new Invocation();
+        HashedWheelTimer.Timeout scheduled = null;
+        if (timeout != null) {
+            scheduled = timer.schedule(() -> invocation.timedOut(() -> {
+                var message = "%s handler of data flow %s did not complete within %s".formatted(type, dataFlow.getId(), timeout);
+                if (result.complete(Result.failure(new HandlerTimeoutException(message)))) {
+                    stats.timeouts.increment();
+                }
+            }, executor), timeout);
+        }
+
+        var stage = call(handler, dataFlow);
+        invocation.returned(stage);
+        var scheduledTimeout = scheduled;
+        stage.whenComplete((value, throwable) -> {
+            if (scheduledTimeout != null) {
+                scheduledTimeout.cancel();
+            }
+            var outcome = throwable == null ? value : Result.<DataFlow>failure(exceptionOf(throwable));
+            var timedOut = !result.complete(outcome);
+            stats.record(outcome.failed() || timedOut, System.nanoTime() - startTime);
+        });
+        return result;
+    }
+
+    Map<HandlerType, Dataplane.HandlerMetrics> metrics() {
+        var metrics = new EnumMap<HandlerType, Dataplane.HandlerMetrics>(HandlerType.class);
+        stats.forEach((type, stats) -> metrics.put(type, new Dataplane.HandlerMetrics(
+                stats.latencies.count(), stats.failures.sum(), stats.timeouts.sum(),
+                stats.latencies.percentile(0.5), stats.latencies.percentile(0.9), stats.latencies.percentile(0.99),
+                stats.latencies.max())));
+        return metrics;
+    }
+
+    private static CompletionStage<Result<DataFlow>> call(Function<DataFlow, CompletionStage<Result<DataFlow>>> handler, DataFlow dataFlow) {
+        try {
+            return handler.apply(dataFlow);
+        } catch (RuntimeException exception) {
+            return CompletableFuture.completedFuture(Result.failure(exception));
+        }
+    }
+
+    private static Exception exceptionOf(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof Exception exception ? exception : new RuntimeException(cause);
+    }
+
+    /**
+     * Tracks what a timed out handler is doing. A handler still running on the invoking thread is interrupted, and
+     * keeps the slot of its data flow until it returns: only then the invocation fails, so that no other operation on
+     * the flow runs while the handler does. Otherwise, the invocation fails right away and the stage the handler
+     * returned is cancelled.
+     */
+    private static class Invocation {
+        private final Thread thread = Thread.currentThread();
+        private CompletionStage<?> stage;
+        private Runnable timeout;
+
+        void timedOut(Runnable timeout, Executor executor) {
+            CompletionStage<?> returned;
+            synchronized (this) {
+                if (stage == null) {
+                    this.timeout = timeout;
+                    thread.interrupt();
+                    return;
+                }
+                returned = stage;
+            }
+            executor.execute(() -> {
+                timeout.run();
+                cancel(returned);
+            });
+        }
+
+        void returned(CompletionStage<?> stage) {
+            Runnable pending;
+            synchronized (this) {
+                this.stage = stage;
+                pending = timeout;
+            }
+            if (pending != null) {
+                // the interruption was meant for the handler, not for the operation that invoked it
+                Thread.interrupted();
+                pending.run();
+                cancel(stage);
+            }
+        }
+
+        private static void cancel(CompletionStage<?> stage) {
+            try {
+                stage.toCompletableFuture().cancel(true);
+            } catch (UnsupportedOperationException ignored) {
+                // the stage cannot be cancelled, its outcome will be ignored
+            }
+        }
+    }
+
+    private static class Stats {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        void record(boolean failed, long nanos) {
+            latencies.record(nanos);
+            if (failed) {
+                failures.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlowResponseMessage;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Handles every message once: the response of a message is kept for a time window, and replayed to the duplicates
+ * of the message, having the same type, processId and messageId, received in the meantime, e.g. when the control
+ * plane retries a request that timed out.
+ * Duplicates received while the message is still being handled wait for its response.
+ * <p>
+ * Failures are not kept, so the message can be retried. Memory is bounded by the max number of kept responses, the
+ * oldest ones are evicted first.
+ */
+class MessageDeduplicator {
+
+    private final long windowNanos;
+    private final int maxMessages;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>();
+
+    MessageDeduplicator(Duration window, int maxMessages) {
+        this.windowNanos = window.toNanos();
+        this.maxMessages = maxMessages;
+    }
+
+    /**
+     * Handle the message, unless it has already been handled.
+     *
+     * @param type the message type, e.g. prepare or start.
+     * @param processId the data flow id.
+     * @param messageId the message id, messages without id are always handled.
+     * @param handle handles the message.
+     * @return the response of the message, or the one of its first occurrence.
+     */
+    CompletionStage<Result<DataFlowResponseMessage>> deduplicate(String type, String processId, String messageId, Supplier<CompletionStage<Result<DataFlowResponseMessage>>> handle) {
+        if (messageId == null || maxMessages <= 0 || windowNanos <= 0) {
+            return handle.get();
+        }
+
+        var key = new Key(type, processId, messageId);
+        var now = System.nanoTime();
+        var entry = new Entry(now, new CompletableFuture<>());
+        synchronized (entries) {
+            evictExpired(now);
+            var existing = entries.get(key);
+            if (existing != null) {
+                return existing.response.copy();
+            }
+            evictOldest();
+            entries.put(key, entry);
+        }
+
+        start(handle).whenComplete((result, throwable) -> {
+            if (throwable != null || result.failed()) {
+                synchronized (entries) {
+                    entries.remove(key, entry);
+                }
+            }
+            if (throwable != null) {
+                entry.response.completeExceptionally(throwable);
+            } else {
+                entry.response.complete(result);
+            }
+        });
+        return entry.response.copy();
+    }
+
+    private CompletionStage<Result<DataFlowResponseMessage>> start(Supplier<CompletionStage<Result<DataFlowResponseMessage>>> handle) {
+        try {
+            return handle.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Remove the entries older than the window. Entries are in insertion order, so the scan stops at the first one
+     * to keep.
+     */
+    private void evictExpired(long now) {
+        var iterator = entries.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().receivedAt >= windowNanos) {
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Make room for a new entry.
+     */
+    private void evictOldest() {
+        var iterator = entries.values().iterator();
+        while (entries.size() >= maxMessages && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record Key(String type, String processId, String messageId) {
+    }
+
+    private record Entry(long receivedAt, CompletableFuture<Result<DataFlowResponseMessage>> response) {
+    }
+}
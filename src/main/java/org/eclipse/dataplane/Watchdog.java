@@ -0,0 +1,82 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.logic.DataFlowListener;
+import org.eclipse.dataplane.logic.WatchdogPolicy;
+import org.eclipse.dataplane.util.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Enforces the {@link WatchdogPolicy}.
+ * <p>
+ * Every time a data flow is saved in a state with a deadline it gets a timeout on a {@link HashedWheelTimer}, kept
+ * while it's saved again in the same state and cancelled when it changes state, so tracking a flow is O(1) and no
+ * periodic scan of the store is needed. Data flows already in the store at startup are given a full deadline.
+ */
+class Watchdog implements DataFlowListener {
+
+    private final WatchdogPolicy policy;
+    private final HashedWheelTimer timer;
+    private final BiConsumer<String, DataFlow.State> onStale;
+    private final Map<String, Deadline> deadlines = new ConcurrentHashMap<>();
+
+    /**
+     * @param policy the policy.
+     * @param timer the timer.
+     * @param onStale invoked with the id of a data flow and the state it has been in for too long.
+     */
+    Watchdog(WatchdogPolicy policy, HashedWheelTimer timer, BiConsumer<String, DataFlow.State> onStale) {
+        this.policy = policy;
+        this.timer = timer;
+        this.onStale = onStale;
+    }
+
+    @Override
+    public void saved(DataFlow dataFlow) {
+        var state = dataFlow.getState();
+        var deadline = policy.getDeadline(state);
+        deadlines.compute(dataFlow.getId(), (flowId, current) -> {
+            if (current != null) {
+                if (current.state == state) {
+                    return current;
+                }
+                current.timeout.cancel();
+            }
+            return deadline == null ? null : schedule(flowId, state, deadline);
+        });
+    }
+
+    /**
+     * Track a data flow found in the store at startup, unless a more recent save already did.
+     */
+    void restore(DataFlow dataFlow) {
+        var deadline = policy.getDeadline(dataFlow.getState());
+        if (deadline != null) {
+            deadlines.computeIfAbsent(dataFlow.getId(), flowId -> schedule(flowId, dataFlow.getState(), deadline));
+        }
+    }
+
+    /**
+     * Number of data flows being watched.
+     */
+    int size() {
+        return deadlines.size();
+    }
+
+    private Deadline schedule(String flowId, DataFlow.State state, Duration deadline) {
+        var tracked = new Deadline[1];
+        tracked[0] = new Deadline(state, timer.schedule(() -> {
+            if (deadlines.remove(flowId, tracked[0])) {
+                onStale.accept(flowId, state);
+            }
+        }, deadline));
+        return tracked[0];
+    }
+
+    private record Deadline(DataFlow.State state, HashedWheelTimer.Timeout timeout) {
+    }
+}
@@ -1,16 +1,26 @@
 package org.eclipse.dataplane.domain;
 
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 
 public abstract class Result<C> {
 
+    private static final Result<?> EMPTY = new Success<>(null);
+
+    /**
+     * A successful result without content, always the same instance.
+     */
     public static Result<Void> success() {
-        return success(null);
+        return empty();
     }
 
+    /**
+     * A successful result. Results without content are shared, as they cannot be told apart.
+     */
     public static <C> Result<C> success(C content) {
-        return new Success<>(content);
+        return content == null ? empty() : new Success<>(content);
     }
 
     public static <R> Result<R> failure(Exception e){ return new Failure<>(e); }
@@ -24,6 +34,11 @@ public abstract class Result<C> {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static <C> Result<C> empty() {
+        return (Result<C>) EMPTY;
+    }
+
     public abstract C getContent();
 
     public abstract C orElseThrow() throws Exception;
@@ -34,6 +49,11 @@ public abstract class Result<C> {
 
     public abstract <T> Result<T> compose(ExceptionThrowingFunction<C, Result<T>> transformValue);
 
+    /**
+     * Like {@link #compose(ExceptionThrowingFunction)}, for transformations that complete asynchronously.
+     */
+    public abstract <T> CompletionStage<Result<T>> composeAsync(ExceptionThrowingFunction<C, CompletionStage<Result<T>>> transformValue);
+
     public boolean succeeded() {
         return this instanceof Result.Success<C>;
     }
@@ -65,9 +85,18 @@ public abstract class Result<C> {
             return content;
         }
 
+        /**
+         * When the transformation returns the same content, this result is returned instead of a new one.
+         */
         @Override
+        @SuppressWarnings("unchecked")
         public <T> Result<T> map(ExceptionThrowingFunction<C, T> transformValue) {
-            return Result.attempt(() -> transformValue.apply(this.content));
+            try {
+                var transformed = transformValue.apply(this.content);
+                return transformed == this.content ? (Result<T>) this : Result.success(transformed);
+            } catch (Exception e) {
+                return Result.failure(e);
+            }
         }
 
         @Override
@@ -78,6 +107,15 @@ public abstract class Result<C> {
                 return Result.failure(e);
             }
         }
+
+        @Override
+        public <T> CompletionStage<Result<T>> composeAsync(ExceptionThrowingFunction<C, CompletionStage<Result<T>>> transformValue) {
+            try {
+                return transformValue.apply(this.content);
+            } catch(Exception e) {
+                return CompletableFuture.completedFuture(Result.failure(e));
+            }
+        }
     }
 
     private static class Failure<C> extends Result<C> {
@@ -104,12 +142,25 @@ public abstract class Result<C> {
 
         @Override
         public <T> Result<T> map(ExceptionThrowingFunction<C, T> transformValue) {
-            return Result.failure(this.exception);
+            return retype();
         }
 
         @Override
         public <T> Result<T> compose(ExceptionThrowingFunction<C, Result<T>> transformValue) {
-            return Result.failure(this.exception);
+            return retype();
+        }
+
+        @Override
+        public <T> CompletionStage<Result<T>> composeAsync(ExceptionThrowingFunction<C, CompletionStage<Result<T>>> transformValue) {
+            return CompletableFuture.completedFuture(retype());
+        }
+
+        /**
+         * A failure has no content, so it can be returned as a failure of any type instead of being wrapped again.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> Result<T> retype() {
+            return (Result<T>) this;
         }
     }
 
@@ -1,7 +1,10 @@
 package org.eclipse.dataplane.domain.dataflow;
 
 import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.port.exception.IllegalTransitionException;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -11,12 +14,14 @@ public class DataFlow {
 
     private String id;
     private State state;
-    private String transferType;
+    private TransferType transferType;
     private String callbackAddress;
     private String terminationReason;
     private List<String> labels;
     private Map<String, Object> metadata;
     private DataAddress dataAddress;
+    private List<DataFlowNotification> pendingNotifications = new ArrayList<>();
+    private long version;
 
     public static DataFlow.Builder newInstance() {
         return new Builder();
@@ -38,33 +43,148 @@ public class DataFlow {
         return callbackAddress;
     }
 
+    public String getTransferType() {
+        return transferType == null ? null : transferType.value();
+    }
+
+    /**
+     * The transfer type, parsed once when the data flow has been built.
+     */
+    public TransferType getParsedTransferType() {
+        return transferType;
+    }
+
+    public String getTerminationReason() {
+        return terminationReason;
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Notifications not yet delivered to the control plane, they are persisted together with the data flow so that
+     * their delivery can be resumed after a restart.
+     */
+    public List<DataFlowNotification> getPendingNotifications() {
+        return pendingNotifications;
+    }
+
+    public boolean hasPendingNotifications() {
+        return !pendingNotifications.isEmpty();
+    }
+
+    public void addPendingNotification(DataFlowNotification notification) {
+        pendingNotifications.add(notification);
+    }
+
+    /**
+     * Remove a notification that has been delivered, applying its effect on the state.
+     *
+     * @return false if the notification was not pending.
+     */
+    public boolean notificationDelivered(DataFlowNotification notification) {
+        if (!pendingNotifications.remove(notification)) {
+            return false;
+        }
+        // a flow terminated while the completion was being delivered stays terminated
+        if (notification.type() == DataFlowNotification.Type.COMPLETED && state.canTransitionTo(State.COMPLETED)) {
+            transitionToCompleted();
+        }
+        return true;
+    }
+
+    /**
+     * Version of the persisted state this instance has been read from, 0 if it has never been persisted.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * A copy of the data flow, that can be changed independently.
+     */
+    public DataFlow copy() {
+        return DataFlow.newInstance()
+                .id(id)
+                .state(state)
+                .transferType(transferType)
+                .callbackAddress(callbackAddress)
+                .terminationReason(terminationReason)
+                .labels(labels == null ? null : new ArrayList<>(labels))
+                .metadata(metadata == null ? null : copyOf(metadata))
+                .dataAddress(dataAddress)
+                .pendingNotifications(pendingNotifications)
+                .version(version)
+                .build();
+    }
+
+    /**
+     * Metadata values can be nested maps and lists, parsed from json, so they are copied as well.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copyOf(T value) {
+        if (value instanceof Map<?, ?> map) {
+            var copy = new LinkedHashMap<Object, Object>(map.size());
+            map.forEach((key, nested) -> copy.put(key, copyOf(nested)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            var copy = new ArrayList<>(list.size());
+            list.forEach(nested -> copy.add(copyOf(nested)));
+            return (T) copy;
+        }
+        return value;
+    }
+
     public void transitionToPrepared() {
-        state = State.PREPARED;
+        transitionTo(State.PREPARED);
     }
 
     public void transitionToPreparing() {
-        state = State.PREPARING;
+        transitionTo(State.PREPARING);
     }
 
     public void transitionToStarting() {
-        state = State.STARTING;
+        transitionTo(State.STARTING);
     }
 
     public void transitionToStarted() {
-        state = State.STARTED;
+        transitionTo(State.STARTED);
     }
 
     public void transitionToCompleted() {
-        state = State.COMPLETED;
+        transitionTo(State.COMPLETED);
     }
 
     public void transitionToTerminated(String reason) {
-        state = State.TERMINATED;
+        transitionTo(State.TERMINATED);
         terminationReason = reason;
     }
 
+    /**
+     * Change the state, if the transition table allows it. The change is only in memory: it's the save of the data
+     * flow at the version it has been read that makes it effective, and fails if the flow changed in the meantime.
+     *
+     * @throws IllegalTransitionException if the transition is not allowed.
+     */
+    private void transitionTo(State next) {
+        if (!state.canTransitionTo(next)) {
+            throw new IllegalTransitionException("DataFlow %s cannot transition from %s to %s".formatted(id, state, next));
+        }
+        state = next;
+    }
+
     public boolean isPush() {
-        return transferType.split("-")[1].equalsIgnoreCase("PUSH");
+        return transferType != null && transferType.isPush();
     }
 
     public boolean isInitiating() {
@@ -79,8 +199,12 @@ public class DataFlow {
         return state == State.STARTED;
     }
 
+    public boolean isTerminal() {
+        return state == State.COMPLETED || state == State.TERMINATED;
+    }
+
     public boolean isPull() {
-        return transferType.split("-")[1].equalsIgnoreCase("PULL");
+        return transferType != null && transferType.isPull();
     }
 
     public void setDataAddress(DataAddress dataAddress) {
@@ -115,6 +239,11 @@ public class DataFlow {
         }
 
         public Builder transferType(String transferType) {
+            dataFlow.transferType = TransferType.parse(transferType);
+            return this;
+        }
+
+        public Builder transferType(TransferType transferType) {
             dataFlow.transferType = transferType;
             return this;
         }
@@ -138,6 +267,21 @@ public class DataFlow {
             dataFlow.metadata = metadata;
             return this;
         }
+
+        public Builder pendingNotifications(List<DataFlowNotification> pendingNotifications) {
+            dataFlow.pendingNotifications = new ArrayList<>(pendingNotifications);
+            return this;
+        }
+
+        public Builder version(long version) {
+            dataFlow.version = version;
+            return this;
+        }
+
+        public Builder terminationReason(String terminationReason) {
+            dataFlow.terminationReason = terminationReason;
+            return this;
+        }
     }
 
     public enum State {
@@ -147,7 +291,33 @@ public class DataFlow {
         STARTING,
         STARTED,
         COMPLETED,
-        TERMINATED
+        TERMINATED;
+
+        /**
+         * Bit set of the ordinals of the states that can follow this one.
+         */
+        private int next;
+
+        static {
+            allow(INITIATING, PREPARING, PREPARED, STARTING, STARTED, TERMINATED);
+            allow(PREPARING, PREPARED, TERMINATED);
+            allow(PREPARED, STARTING, STARTED, COMPLETED, TERMINATED);
+            allow(STARTING, STARTED, TERMINATED);
+            allow(STARTED, STARTED, COMPLETED, TERMINATED);
+        }
+
+        /**
+         * Whether a data flow in this state can transition to the other one. Terminal states cannot transition at all.
+         */
+        public boolean canTransitionTo(State other) {
+            return (next & (1 << other.ordinal())) != 0;
+        }
+
+        private static void allow(State from, State... to) {
+            for (var state : to) {
+                from.next |= 1 << state.ordinal();
+            }
+        }
     }
 }
 
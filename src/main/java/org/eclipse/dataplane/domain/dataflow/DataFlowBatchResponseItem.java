@@ -0,0 +1,17 @@
+package org.eclipse.dataplane.domain.dataflow;
+
+/**
+ * Outcome of a single item of a batch request.
+ *
+ * @param dataFlowId the data flow id.
+ * @param status the http status the item would have got as a single request.
+ * @param response the response, if any.
+ * @param error the error, if the item failed.
+ */
+public record DataFlowBatchResponseItem(
+        String dataFlowId,
+        int status,
+        DataFlowResponseMessage response,
+        String error
+) {
+}
@@ -0,0 +1,7 @@
+package org.eclipse.dataplane.domain.dataflow;
+
+public record DataFlowBatchTerminateMessage(
+        String dataFlowId,
+        String reason
+) {
+}
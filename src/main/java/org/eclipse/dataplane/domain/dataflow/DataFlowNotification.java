@@ -0,0 +1,108 @@
+package org.eclipse.dataplane.domain.dataflow;
+
+import org.eclipse.dataplane.domain.DataAddress;
+
+import java.util.StringJoiner;
+
+/**
+ * Notification about a data flow that still has to be delivered to the control plane.
+ *
+ * @param type the type, that defines the callback endpoint.
+ * @param body the json body of the callback.
+ */
+public record DataFlowNotification(
+        Type type,
+        String body
+) {
+
+    public static DataFlowNotification completed() {
+        return new DataFlowNotification(Type.COMPLETED, "{}"); // TODO DataFlowCompletedMessage not defined
+    }
+
+    /**
+     * Notify that an asynchronous preparation completed.
+     */
+    public static DataFlowNotification prepared(String dataplaneId, DataFlow dataFlow) {
+        return new DataFlowNotification(Type.PREPARED, responseMessage(dataplaneId, dataFlow));
+    }
+
+    /**
+     * Notify that an asynchronous start completed.
+     */
+    public static DataFlowNotification started(String dataplaneId, DataFlow dataFlow) {
+        return new DataFlowNotification(Type.STARTED, responseMessage(dataplaneId, dataFlow));
+    }
+
+    public static DataFlowNotification errored(String reason) {
+        return new DataFlowNotification(Type.ERRORED, "{\"reason\":%s}".formatted(jsonString(reason)));
+    }
+
+    /**
+     * The json of a {@link DataFlowResponseMessage}, the same the control plane would have got as synchronous response.
+     */
+    private static String responseMessage(String dataplaneId, DataFlow dataFlow) {
+        return "{\"dataplaneId\":%s,\"dataAddress\":%s,\"state\":%s}"
+                .formatted(jsonString(dataplaneId), dataAddress(dataFlow.getDataAddress()), jsonString(dataFlow.getState().name()));
+    }
+
+    private static String dataAddress(DataAddress dataAddress) {
+        if (dataAddress == null) {
+            return "null";
+        }
+        var properties = new StringJoiner(",", "[", "]");
+        if (dataAddress.endpointProperties() != null) {
+            for (var property : dataAddress.endpointProperties()) {
+                properties.add("{\"type\":%s,\"name\":%s,\"value\":%s}"
+                        .formatted(jsonString(property.type()), jsonString(property.name()), jsonString(property.value())));
+            }
+        }
+        return "{\"type\":%s,\"endpointType\":%s,\"endpoint\":%s,\"endpointProperties\":%s}"
+                .formatted(jsonString(dataAddress.type()), jsonString(dataAddress.endpointType()),
+                        jsonString(dataAddress.endpoint()), properties);
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        var json = new StringBuilder(value.length() + 2).append('"');
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u%04x".formatted((int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    public enum Type {
+        COMPLETED("completed"),
+        ERRORED("errored"),
+        PREPARED("prepared"),
+        STARTED("started");
+
+        private final String path;
+
+        Type(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Last segment of the callback endpoint path.
+         */
+        public String path() {
+            return path;
+        }
+    }
+}
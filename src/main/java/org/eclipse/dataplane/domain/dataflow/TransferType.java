@@ -0,0 +1,80 @@
+package org.eclipse.dataplane.domain.dataflow;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A transfer type, e.g. "HttpData-PULL", parsed into its format and its direction.
+ * <p>
+ * Instances are interned, so a data flow parses its transfer type once and the instance can be used as a cheap key,
+ * e.g. for routing, quotas or metrics. Only a bounded number of types is interned, as they come from the requests.
+ *
+ * @param value the transfer type as received.
+ * @param format the format, e.g. "HttpData".
+ * @param direction the direction, null if the type doesn't specify a known one.
+ */
+public record TransferType(String value, String format, Direction direction) {
+
+    private static final int MAX_INTERNED = 1024;
+    private static final Map<String, TransferType> INTERNED = new ConcurrentHashMap<>();
+
+    /**
+     * Parse a transfer type, in the form "format-direction", possibly followed by other segments. A type without a known direction is not rejected, it's
+     * just neither push nor pull.
+     *
+     * @param value the transfer type.
+     * @return the parsed transfer type, null if the value is null.
+     */
+    public static TransferType parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        var interned = INTERNED.get(value);
+        if (interned != null) {
+            return interned;
+        }
+        var parsed = parseUninterned(value);
+        if (INTERNED.size() >= MAX_INTERNED) {
+            return parsed;
+        }
+        var previous = INTERNED.putIfAbsent(value, parsed);
+        return previous == null ? parsed : previous;
+    }
+
+    public boolean isPush() {
+        return direction == Direction.PUSH;
+    }
+
+    public boolean isPull() {
+        return direction == Direction.PULL;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    /**
+     * The direction is the second segment, as "HttpData-PUSH-x" is a push type as well.
+     */
+    private static TransferType parseUninterned(String value) {
+        var separator = value.indexOf('-');
+        if (separator < 0) {
+            return new TransferType(value, value, null);
+        }
+        var end = value.indexOf('-', separator + 1);
+        var segment = value.substring(separator + 1, end < 0 ? value.length() : end);
+        Direction direction = null;
+        if (segment.equalsIgnoreCase("PUSH")) {
+            direction = Direction.PUSH;
+        } else if (segment.equalsIgnoreCase("PULL")) {
+            direction = Direction.PULL;
+        }
+        return new TransferType(value, direction == null ? value : value.substring(0, separator), direction);
+    }
+
+    public enum Direction {
+        PUSH,
+        PULL
+    }
+}
@@ -0,0 +1,88 @@
+package org.eclipse.dataplane.logic;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limits the work accepted by the data plane: new data flows are rejected once the limits are reached, instead of
+ * overcommitting the node. All the limits are disabled by default.
+ */
+public class AdmissionPolicy {
+
+    private int maxActiveFlows = Integer.MAX_VALUE;
+    private int maxInFlightHandlers = Integer.MAX_VALUE;
+    private final Map<String, Integer> maxActiveFlowsPerTransferType = new HashMap<>();
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public static AdmissionPolicy.Builder newInstance() {
+        return new Builder();
+    }
+
+    public int getMaxActiveFlows() {
+        return maxActiveFlows;
+    }
+
+    public int getMaxInFlightHandlers() {
+        return maxInFlightHandlers;
+    }
+
+    public int getMaxActiveFlows(String transferType) {
+        return maxActiveFlowsPerTransferType.getOrDefault(transferType, Integer.MAX_VALUE);
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Whether the active data flows are limited, in total or for some transfer type.
+     */
+    public boolean limitsActiveFlows() {
+        return maxActiveFlows != Integer.MAX_VALUE || !maxActiveFlowsPerTransferType.isEmpty();
+    }
+
+    public static class Builder {
+        private final AdmissionPolicy policy = new AdmissionPolicy();
+
+        private Builder() {
+
+        }
+
+        public AdmissionPolicy build() {
+            return policy;
+        }
+
+        /**
+         * Max number of data flows that are not completed or terminated yet.
+         */
+        public Builder maxActiveFlows(int maxActiveFlows) {
+            policy.maxActiveFlows = maxActiveFlows;
+            return this;
+        }
+
+        /**
+         * Max number of data flows of a transfer type that are not completed or terminated yet.
+         */
+        public Builder maxActiveFlows(String transferType, int maxActiveFlows) {
+            policy.maxActiveFlowsPerTransferType.put(transferType, maxActiveFlows);
+            return this;
+        }
+
+        /**
+         * Max number of prepare and start handlers running at the same time.
+         */
+        public Builder maxInFlightHandlers(int maxInFlightHandlers) {
+            policy.maxInFlightHandlers = maxInFlightHandlers;
+            return this;
+        }
+
+        /**
+         * Time after which a rejected request is suggested to be retried.
+         */
+        public Builder retryAfter(Duration retryAfter) {
+            policy.retryAfter = retryAfter;
+            return this;
+        }
+    }
+}
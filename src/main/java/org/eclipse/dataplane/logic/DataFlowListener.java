@@ -0,0 +1,13 @@
+package org.eclipse.dataplane.logic;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+/**
+ * Listener notified every time a data flow has been saved, e.g. after a state transition.
+ * It is invoked on the thread that completed the save, so it must not block.
+ */
+public interface DataFlowListener {
+
+    void saved(DataFlow dataFlow);
+
+}
@@ -0,0 +1,76 @@
+package org.eclipse.dataplane.logic;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Max time the handlers can take, per handler and transfer type. A handler that takes longer is cancelled, by
+ * interrupting its thread if it's still running or by cancelling the stage it returned, and it fails with a
+ * {@link org.eclipse.dataplane.port.exception.HandlerTimeoutException}. No timeout is set by default.
+ * <p>
+ * A synchronous handler that ignores the interruption keeps its data flow busy until it returns: the failure is only
+ * reported then, so that no other operation on the data flow runs concurrently with it.
+ */
+public class HandlerTimeouts {
+
+    private Duration defaultTimeout;
+    private final Map<HandlerType, Duration> timeouts = new EnumMap<>(HandlerType.class);
+    private final Map<HandlerType, Map<String, Duration>> timeoutsPerTransferType = new EnumMap<>(HandlerType.class);
+
+    public static HandlerTimeouts.Builder newInstance() {
+        return new Builder();
+    }
+
+    /**
+     * Get the timeout of a handler for a transfer type: the one specific for the transfer type if any, otherwise the
+     * one of the handler, otherwise the default one.
+     *
+     * @return the timeout, null if there's none.
+     */
+    public Duration getTimeout(HandlerType handler, String transferType) {
+        var perTransferType = timeoutsPerTransferType.get(handler);
+        if (perTransferType != null && transferType != null) {
+            var timeout = perTransferType.get(transferType);
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        return timeouts.getOrDefault(handler, defaultTimeout);
+    }
+
+    public boolean isEnabled() {
+        return defaultTimeout != null || !timeouts.isEmpty() || !timeoutsPerTransferType.isEmpty();
+    }
+
+    public static class Builder {
+        private final HandlerTimeouts handlerTimeouts = new HandlerTimeouts();
+
+        private Builder() {
+
+        }
+
+        public HandlerTimeouts build() {
+            return handlerTimeouts;
+        }
+
+        /**
+         * Timeout of all the handlers that have no specific one.
+         */
+        public Builder defaultTimeout(Duration timeout) {
+            handlerTimeouts.defaultTimeout = timeout;
+            return this;
+        }
+
+        public Builder timeout(HandlerType handler, Duration timeout) {
+            handlerTimeouts.timeouts.put(handler, timeout);
+            return this;
+        }
+
+        public Builder timeout(HandlerType handler, String transferType, Duration timeout) {
+            handlerTimeouts.timeoutsPerTransferType.computeIfAbsent(handler, k -> new HashMap<>()).put(transferType, timeout);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.eclipse.dataplane.logic;
+
+/**
+ * The handlers a {@link org.eclipse.dataplane.Dataplane} invokes.
+ */
+public enum HandlerType {
+    PREPARE,
+    START,
+    STARTED,
+    COMPLETED,
+    TERMINATE
+}
@@ -0,0 +1,16 @@
+package org.eclipse.dataplane.logic;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Like {@link OnCompleted}, for handlers that complete asynchronously: the response is sent once the returned stage completes,
+ * without holding a thread in the meantime.
+ */
+public interface OnCompletedAsync {
+
+    CompletionStage<Result<DataFlow>> action(DataFlow dataFlow);
+
+}
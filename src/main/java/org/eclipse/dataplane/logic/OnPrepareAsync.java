@@ -0,0 +1,17 @@
+package org.eclipse.dataplane.logic;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Like {@link OnPrepare}, for handlers that complete asynchronously. While the returned stage is pending the data flow
+ * is PREPARING: the control plane gets a 202 response, and is notified through the prepared callback once the stage
+ * completes, or through the errored one if it fails.
+ */
+public interface OnPrepareAsync {
+
+    CompletionStage<Result<DataFlow>> action(DataFlow dataFlow);
+
+}
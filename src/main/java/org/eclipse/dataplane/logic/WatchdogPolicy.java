@@ -0,0 +1,58 @@
+package org.eclipse.dataplane.logic;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Max time a data flow can stay in a state, e.g. PREPARED waiting for a start or STARTED waiting for the transfer to
+ * complete. A data flow that exceeds it is considered stale: it gets terminated, its onTerminate handler is invoked so
+ * that the resources allocated for it can be released, and the control plane is notified with an error.
+ * No deadline is set by default.
+ */
+public class WatchdogPolicy {
+
+    private final Map<DataFlow.State, Duration> deadlines = new EnumMap<>(DataFlow.State.class);
+
+    public static WatchdogPolicy.Builder newInstance() {
+        return new Builder();
+    }
+
+    /**
+     * Get the deadline of a state.
+     *
+     * @return the deadline, null if there's none.
+     */
+    public Duration getDeadline(DataFlow.State state) {
+        return deadlines.get(state);
+    }
+
+    public boolean isEnabled() {
+        return !deadlines.isEmpty();
+    }
+
+    public static class Builder {
+        private final WatchdogPolicy policy = new WatchdogPolicy();
+
+        private Builder() {
+
+        }
+
+        public WatchdogPolicy build() {
+            return policy;
+        }
+
+        /**
+         * Max time a data flow can stay in the state, terminal states cannot have a deadline.
+         */
+        public Builder deadline(DataFlow.State state, Duration deadline) {
+            if (state == DataFlow.State.COMPLETED || state == DataFlow.State.TERMINATED) {
+                throw new IllegalArgumentException("Terminal state " + state + " cannot have a deadline");
+            }
+            policy.deadlines.put(state, deadline);
+            return this;
+        }
+    }
+}
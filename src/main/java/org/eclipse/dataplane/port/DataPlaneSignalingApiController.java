@@ -1,90 +1,357 @@
 package org.eclipse.dataplane.port;
 
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import org.eclipse.dataplane.Dataplane;
+import org.eclipse.dataplane.domain.Result;
 import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowBatchResponseItem;
+import org.eclipse.dataplane.domain.dataflow.DataFlowBatchTerminateMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowResponseMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowStartMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowStartedNotificationMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowStatusResponseMessage;
 import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.logic.DataFlowListener;
+import org.eclipse.dataplane.port.exception.AdmissionRejectedException;
 import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+import org.eclipse.dataplane.port.exception.HandlerTimeoutException;
+import org.eclipse.dataplane.port.exception.IllegalTransitionException;
+import org.eclipse.dataplane.port.store.DataFlowQuery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+import static jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS;
 import static jakarta.ws.rs.core.MediaType.WILDCARD;
 
+/**
+ * Data plane signaling API.
+ * Requests are handled asynchronously, so the request thread is released while the store I/O is pending: the servlet
+ * on which the controller is deployed must have async support enabled.
+ */
 @Path("/v1/dataflows")
 @Consumes(APPLICATION_JSON)
 @Produces(APPLICATION_JSON)
 public class DataPlaneSignalingApiController {
 
+    private static final long MAX_WAIT_SECONDS = 60;
+    private static final ScheduledExecutorService HEARTBEATS = createHeartbeatScheduler();
+
     private final Dataplane dataplane;
+    private final Duration heartbeatInterval;
 
     public DataPlaneSignalingApiController(Dataplane dataplane) {
+        this(dataplane, Duration.ofSeconds(15));
+    }
+
+    /**
+     * Create the controller.
+     *
+     * @param dataplane the dataplane.
+     * @param heartbeatInterval interval at which the event streams are checked, so that the ones whose client
+     *                          disconnected are released even if no data flow changes.
+     */
+    DataPlaneSignalingApiController(Dataplane dataplane, Duration heartbeatInterval) {
         this.dataplane = dataplane;
+        this.heartbeatInterval = heartbeatInterval;
     }
 
     @POST
     @Path("/prepare")
-    public Response prepare(DataFlowPrepareMessage message) {
-        var response = dataplane.prepare(message).orElseThrow(this::mapToWsRsException);
-        if (response.state().equals(DataFlow.State.PREPARING.name())) {
-            return Response.accepted(response).build();
-        }
-        return Response.ok(response).build();
+    public void prepare(DataFlowPrepareMessage message, @Suspended AsyncResponse asyncResponse) {
+        resume(asyncResponse, dataplane.prepareAsync(message), response -> {
+            if (response.state().equals(DataFlow.State.PREPARING.name())) {
+                return Response.accepted(response).build();
+            }
+            return Response.ok(response).build();
+        });
     }
 
     @POST
     @Path("/start")
-    public Response start(DataFlowStartMessage message) {
-        var response = dataplane.start(message).orElseThrow(this::mapToWsRsException);
-        if (response.state().equals(DataFlow.State.STARTING.name())) {
-            return Response.accepted(response).build();
-        }
-        return Response.ok(response).build();
+    public void start(DataFlowStartMessage message, @Suspended AsyncResponse asyncResponse) {
+        resume(asyncResponse, dataplane.startAsync(message), response -> {
+            if (response.state().equals(DataFlow.State.STARTING.name())) {
+                return Response.accepted(response).build();
+            }
+            return Response.ok(response).build();
+        });
     }
 
     @POST
     @Path("/{flowId}/terminate")
-    public Response terminate(@PathParam("flowId") String flowId, DataFlowTerminateMessage message) {
-        dataplane.terminate(flowId, message).orElseThrow(this::mapToWsRsException);
-        return Response.ok().build();
+    public void terminate(@PathParam("flowId") String flowId, DataFlowTerminateMessage message, @Suspended AsyncResponse asyncResponse) {
+        resume(asyncResponse, dataplane.terminateAsync(flowId, message), it -> Response.ok().build());
     }
 
     @POST
     @Path("/{flowId}/started")
-    public Response started(@PathParam("flowId") String flowId, DataFlowStartedNotificationMessage startedNotificationMessage) {
-        dataplane.started(flowId, startedNotificationMessage).orElseThrow(this::mapToWsRsException);
-        return Response.ok().build();
+    public void started(@PathParam("flowId") String flowId, DataFlowStartedNotificationMessage startedNotificationMessage,
+                        @Suspended AsyncResponse asyncResponse) {
+        resume(asyncResponse, dataplane.startedAsync(flowId, startedNotificationMessage), it -> Response.ok().build());
     }
 
     @POST
     @Path("/{flowId}/completed")
     @Consumes(WILDCARD)
-    public Response completed(@PathParam("flowId") String flowId) {
-        dataplane.completed(flowId).orElseThrow(this::mapToWsRsException);
-        return Response.ok().build();
+    public void completed(@PathParam("flowId") String flowId, @Suspended AsyncResponse asyncResponse) {
+        resume(asyncResponse, dataplane.completedAsync(flowId), it -> Response.ok().build());
+    }
+
+    @POST
+    @Path("/batch/prepare")
+    public void prepareBatch(List<DataFlowPrepareMessage> messages, @Suspended AsyncResponse asyncResponse) {
+        resumeBatch(asyncResponse, messages.stream().map(DataFlowPrepareMessage::processId).toList(),
+                dataplane.prepareAllAsync(messages), DataFlow.State.PREPARING);
+    }
+
+    @POST
+    @Path("/batch/start")
+    public void startBatch(List<DataFlowStartMessage> messages, @Suspended AsyncResponse asyncResponse) {
+        resumeBatch(asyncResponse, messages.stream().map(DataFlowStartMessage::processId).toList(),
+                dataplane.startAllAsync(messages), DataFlow.State.STARTING);
     }
 
+    @POST
+    @Path("/batch/terminate")
+    public void terminateBatch(List<DataFlowBatchTerminateMessage> messages, @Suspended AsyncResponse asyncResponse) {
+        resumeBatch(asyncResponse, messages.stream().map(DataFlowBatchTerminateMessage::dataFlowId).toList(),
+                dataplane.terminateAllAsync(messages), null);
+    }
+
+    /**
+     * Get the status of a data flow, tagged with its version.
+     * When the version known by the client is passed with the If-None-Match header, the response is 304 Not Modified
+     * if the version is still the same. The wait parameter turns it into a long poll: the response is held until the
+     * data flow changes or the wait, in seconds, has elapsed.
+     */
     @GET
     @Path("/{flowId}/status")
-    public DataFlowStatusResponseMessage status(@PathParam("flowId") String flowId) {
-        return dataplane.status(flowId).orElseThrow(this::mapToWsRsException);
+    public void status(@PathParam("flowId") String flowId, @HeaderParam("If-None-Match") String ifNoneMatch,
+                       @QueryParam("wait") @DefaultValue("0") long waitSeconds, @Suspended AsyncResponse asyncResponse) {
+        var knownVersion = parseVersion(ifNoneMatch);
+        var wait = knownVersion < 0 ? Duration.ZERO : Duration.ofSeconds(Math.min(Math.max(waitSeconds, 0), MAX_WAIT_SECONDS));
+        resume(asyncResponse, dataplane.statusChangeAsync(flowId, knownVersion, wait), dataFlow -> {
+            var tag = new EntityTag(String.valueOf(dataFlow.getVersion()));
+            if (dataFlow.getVersion() == knownVersion) {
+                return Response.notModified(tag).build();
+            }
+            return Response.ok(statusOf(dataFlow)).tag(tag).build();
+        });
+    }
+
+    /**
+     * Stream the status of the data flows as server-sent events, every time they are saved. The flows can be
+     * filtered by id, state, transfer type and label. When filtering by id, the current status is sent first.
+     * A comment is sent periodically as heartbeat, to release the stream once the client disconnected.
+     */
+    @GET
+    @Path("/events")
+    @Produces(SERVER_SENT_EVENTS)
+    public void events(@QueryParam("flowId") String flowId, @QueryParam("state") DataFlow.State state,
+                       @QueryParam("transferType") String transferType, @QueryParam("label") String label,
+                       @Context SseEventSink sink, @Context Sse sse) {
+        var query = DataFlowQuery.newInstance().state(state).transferType(transferType).label(label).build();
+        var stream = new EventStream(flowId, query, sink, sse);
+
+        dataplane.addListener(stream);
+        stream.heartbeat = HEARTBEATS.scheduleWithFixedDelay(stream::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (flowId != null) {
+            dataplane.statusChangeAsync(flowId, -1, Duration.ZERO).thenAccept(found -> {
+                if (found.succeeded()) {
+                    stream.saved(found.getContent());
+                }
+            });
+        }
+    }
+
+    private <T> void resume(AsyncResponse asyncResponse, CompletionStage<Result<T>> stage, Function<T, ?> toResponse) {
+        stage.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                asyncResponse.resume(new WebApplicationException("unexpected internal server error"));
+                return;
+            }
+            try {
+                asyncResponse.resume(toResponse.apply(result.orElseThrow(this::mapToWsRsException)));
+            } catch (WebApplicationException exception) {
+                asyncResponse.resume(exception);
+            }
+        });
+    }
+
+    /**
+     * Resume with the outcome of every item, each one with the status it would have got as a single request.
+     */
+    private <T> void resumeBatch(AsyncResponse asyncResponse, List<String> dataFlowIds, CompletionStage<List<Result<T>>> stage,
+                                 DataFlow.State acceptedState) {
+        stage.whenComplete((results, throwable) -> {
+            if (throwable != null) {
+                asyncResponse.resume(new WebApplicationException("unexpected internal server error"));
+                return;
+            }
+            var items = new ArrayList<DataFlowBatchResponseItem>(results.size());
+            for (var i = 0; i < results.size(); i++) {
+                var dataFlowId = dataFlowIds.get(i);
+                try {
+                    var content = results.get(i).orElseThrow(this::mapToWsRsException);
+                    var response = content instanceof DataFlowResponseMessage message ? message : null;
+                    var accepted = response != null && acceptedState != null && acceptedState.name().equals(response.state());
+                    var status = accepted ? Response.Status.ACCEPTED : Response.Status.OK;
+                    items.add(new DataFlowBatchResponseItem(dataFlowId, status.getStatusCode(), response, null));
+                } catch (WebApplicationException exception) {
+                    items.add(new DataFlowBatchResponseItem(dataFlowId, exception.getResponse().getStatus(), null, exception.getMessage()));
+                }
+            }
+            asyncResponse.resume(Response.ok(items).build());
+        });
+    }
+
+    private DataFlowStatusResponseMessage statusOf(DataFlow dataFlow) {
+        return new DataFlowStatusResponseMessage(dataFlow.getId(), dataFlow.getState().name());
+    }
+
+    private long parseVersion(String entityTag) {
+        if (entityTag == null) {
+            return -1;
+        }
+        var value = entityTag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
     private WebApplicationException mapToWsRsException(Exception exception) {
         if (exception instanceof DataFlowNotFoundException notFound) {
             return new NotFoundException(notFound);
         }
+        if (exception instanceof IllegalTransitionException || exception instanceof DataFlowVersionConflictException) {
+            return new WebApplicationException(exception.getMessage(), Response.Status.CONFLICT);
+        }
+        if (exception instanceof HandlerTimeoutException) {
+            return new WebApplicationException(exception.getMessage(), Response.Status.GATEWAY_TIMEOUT);
+        }
+        if (exception instanceof AdmissionRejectedException rejected) {
+            // a saturated node is a transient condition, while a reached flow limit depends on the client load
+            var status = rejected.getLimit() == AdmissionRejectedException.Limit.IN_FLIGHT_HANDLERS
+                    ? Response.Status.SERVICE_UNAVAILABLE : Response.Status.TOO_MANY_REQUESTS;
+            var retryAfterSeconds = Math.max(1, (rejected.getRetryAfter().toMillis() + 999) / 1000);
+            return new WebApplicationException(rejected.getMessage(), Response.status(status).header("Retry-After", retryAfterSeconds).build());
+        }
         return new WebApplicationException("unexpected internal server error");
     }
 
+    private static ScheduledExecutorService createHeartbeatScheduler() {
+        var scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "dataplane-sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Stream of server-sent events of a client, released as soon as its sink is found closed or a send fails.
+     */
+    private class EventStream implements DataFlowListener {
+        private final String flowId;
+        private final DataFlowQuery query;
+        private final SseEventSink sink;
+        private final Sse sse;
+        private volatile ScheduledFuture<?> heartbeat;
+
+        EventStream(String flowId, DataFlowQuery query, SseEventSink sink, Sse sse) {
+            this.flowId = flowId;
+            this.query = query;
+            this.sink = sink;
+            this.sse = sse;
+        }
+
+        @Override
+        public void saved(DataFlow dataFlow) {
+            if (sink.isClosed()) {
+                release();
+                return;
+            }
+            if ((flowId == null || flowId.equals(dataFlow.getId())) && query.matches(dataFlow)) {
+                send(sse.newEventBuilder()
+                        .name("status")
+                        .id(String.valueOf(dataFlow.getVersion()))
+                        .mediaType(APPLICATION_JSON_TYPE)
+                        .data(DataFlowStatusResponseMessage.class, statusOf(dataFlow))
+                        .build());
+            }
+        }
+
+        void heartbeat() {
+            if (sink.isClosed()) {
+                release();
+                return;
+            }
+            send(sse.newEventBuilder().comment("heartbeat").build());
+        }
+
+        private void send(OutboundSseEvent event) {
+            CompletionStage<?> sent;
+            try {
+                sent = sink.send(event);
+            } catch (RuntimeException exception) {
+                release();
+                return;
+            }
+            sent.whenComplete((nothing, throwable) -> {
+                if (throwable != null) {
+                    release();
+                }
+            });
+        }
+
+        private void release() {
+            dataplane.removeListener(this);
+            var scheduled = heartbeat;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            try {
+                ((AutoCloseable) sink).close();
+            } catch (Exception ignored) {
+                // the client is gone already
+            }
+        }
+    }
 }
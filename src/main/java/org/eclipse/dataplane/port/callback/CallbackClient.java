@@ -0,0 +1,259 @@
+package org.eclipse.dataplane.port.callback;
+
+import org.eclipse.dataplane.port.exception.CallbackFailedException;
+import org.eclipse.dataplane.port.exception.CallbackRejectedException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends callbacks to the control plane, retrying them accordingly to the {@link RetryPolicy}.
+ * <p>
+ * Every callback host has its own lane with a bounded number of concurrent requests, retries included: callbacks
+ * exceeding it wait in order, so bursts towards a host don't turn into connection storms. Every host has its own
+ * {@link CircuitBreaker} too: while it is open the attempts fail right away, without being sent, and are retried later
+ * as any other failed attempt.
+ * <p>
+ * Retries of all the clients are scheduled on a single shared daemon thread, that only fires the next attempt: every
+ * callback completes a single future, no matter how many attempts are needed.
+ */
+public class CallbackClient {
+
+    private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+    private HttpClient httpClient;
+    private Duration requestTimeout = Duration.ofSeconds(10);
+    private RetryPolicy retryPolicy = RetryPolicy.newInstance().build();
+    private int maxConcurrentRequestsPerHost = 8;
+    private int maxWaitingRequestsPerHost = 1000;
+    private CircuitBreakerPolicy circuitBreakerPolicy = CircuitBreakerPolicy.newInstance().build();
+    private final Map<String, HostLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger retriesInFlight = new AtomicInteger();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public static CallbackClient.Builder newInstance() {
+        return new Builder();
+    }
+
+    /**
+     * {@link HttpClient} shared by all the clients that are not given a specific one: it prefers HTTP/2, so the
+     * callbacks to the same host are multiplexed over few connections, runs on a bounded pool of daemon threads and
+     * gives up connecting after 5 seconds.
+     */
+    public static HttpClient defaultHttpClient() {
+        return DefaultHttpClient.INSTANCE;
+    }
+
+    /**
+     * Send a callback.
+     *
+     * @param endpoint the endpoint.
+     * @param body the json body.
+     * @return a future that completes when the control plane responds successfully, or fails with a
+     * {@link CallbackFailedException} when the callback cannot be delivered, also when the endpoint is not a valid
+     * http one.
+     */
+    public CompletableFuture<Void> send(URI endpoint, String body) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                    .uri(endpoint)
+                    .header("content-type", "application/json")
+                    .timeout(requestTimeout)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new CallbackFailedException("Invalid callback endpoint " + endpoint, e));
+        }
+
+        var result = new CompletableFuture<Void>();
+        attempt(request, 1, System.nanoTime(), result);
+        return result;
+    }
+
+    public Metrics metrics() {
+        var hosts = new TreeMap<String, HostMetrics>();
+        lanes.forEach((host, lane) -> hosts.put(host, new HostMetrics(lane.circuitBreaker().getState(),
+                lane.inFlight(), lane.waiting(), lane.rejected())));
+        var inFlight = hosts.values().stream().mapToInt(HostMetrics::requestsInFlight).sum();
+        var waiting = hosts.values().stream().mapToInt(HostMetrics::requestsWaiting).sum();
+        return new Metrics(inFlight, waiting, retriesInFlight.get(), retries.sum(), exhausted.sum(), hosts);
+    }
+
+    private void attempt(HttpRequest request, int attempt, long start, CompletableFuture<Void> result) {
+        var lane = lanes.computeIfAbsent(request.uri().getAuthority(), host -> new HostLane(maxConcurrentRequestsPerHost,
+                maxWaitingRequestsPerHost, new CircuitBreaker(circuitBreakerPolicy)));
+        lane.submit(() -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                .whenComplete((response, throwable) -> {
+                    var cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (cause == null) {
+                        if (isRetryable(response.statusCode())) {
+                            lane.circuitBreaker().onFailure();
+                        } else {
+                            lane.circuitBreaker().onSuccess();
+                        }
+                    } else if (!(cause instanceof CallbackRejectedException)) {
+                        // any failure of a sent request counts, so that a half open trial is always released
+                        lane.circuitBreaker().onFailure();
+                    }
+
+                    if (cause == null && isSuccessful(response.statusCode())) {
+                        result.complete(null);
+                        return;
+                    }
+
+                    var failure = cause == null
+                            ? new CallbackFailedException("Callback to %s responded with %d".formatted(request.uri(), response.statusCode()))
+                            : new CallbackFailedException("Callback to %s failed".formatted(request.uri()), cause);
+
+                    var retryable = cause == null
+                            ? isRetryable(response.statusCode())
+                            : cause instanceof IOException || cause instanceof CallbackRejectedException;
+                    if (!retryable) {
+                        result.completeExceptionally(failure);
+                        return;
+                    }
+
+                    var delay = retryPolicy.delayBefore(attempt);
+                    var elapsed = System.nanoTime() - start;
+                    if (attempt >= retryPolicy.getMaxAttempts() || elapsed + delay.toNanos() > retryPolicy.getMaxDuration().toNanos()) {
+                        exhausted.increment();
+                        result.completeExceptionally(failure);
+                        return;
+                    }
+
+                    retries.increment();
+                    retriesInFlight.incrementAndGet();
+                    SCHEDULER.schedule(() -> {
+                        retriesInFlight.decrementAndGet();
+                        attempt(request, attempt + 1, start, result);
+                    }, delay.toNanos(), TimeUnit.NANOSECONDS);
+                });
+    }
+
+    private boolean isSuccessful(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    private boolean isRetryable(int statusCode) {
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        var scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            var thread = new Thread(runnable, "dataplane-callback-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static class DefaultHttpClient {
+        private static final HttpClient INSTANCE = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                    var thread = new Thread(runnable, "dataplane-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    /**
+     * Callbacks metrics.
+     *
+     * @param requestsInFlight requests currently sent and waiting for a response.
+     * @param requestsWaiting requests waiting for room in their host lane.
+     * @param retriesInFlight callbacks currently waiting for their next attempt.
+     * @param retries total number of retries scheduled.
+     * @param exhausted callbacks that failed after all the retries allowed by the policy.
+     * @param hosts metrics of every callback host.
+     */
+    public record Metrics(int requestsInFlight, int requestsWaiting, int retriesInFlight, long retries, long exhausted,
+                          Map<String, HostMetrics> hosts) {
+    }
+
+    /**
+     * Metrics of a callback host.
+     *
+     * @param circuitBreaker the state of the circuit breaker.
+     * @param requestsInFlight requests currently sent and waiting for a response.
+     * @param requestsWaiting requests waiting for room in the lane.
+     * @param rejected total number of attempts rejected without being sent.
+     */
+    public record HostMetrics(CircuitBreaker.State circuitBreaker, int requestsInFlight, int requestsWaiting, long rejected) {
+    }
+
+    public static class Builder {
+        private final CallbackClient client = new CallbackClient();
+
+        private Builder() {
+
+        }
+
+        public CallbackClient build() {
+            if (client.httpClient == null) {
+                client.httpClient = defaultHttpClient();
+            }
+            return client;
+        }
+
+        public Builder httpClient(HttpClient httpClient) {
+            client.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Time after which a request without response fails, and gets retried. Defaults to 10 seconds.
+         */
+        public Builder requestTimeout(Duration requestTimeout) {
+            client.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            client.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Max number of requests in flight towards the same host, defaults to 8.
+         */
+        public Builder maxConcurrentRequestsPerHost(int maxConcurrentRequestsPerHost) {
+            client.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Max number of requests waiting for room towards the same host, the exceeding ones are rejected. Defaults
+         * to 1000.
+         */
+        public Builder maxWaitingRequestsPerHost(int maxWaitingRequestsPerHost) {
+            client.maxWaitingRequestsPerHost = maxWaitingRequestsPerHost;
+            return this;
+        }
+
+        public Builder circuitBreakerPolicy(CircuitBreakerPolicy circuitBreakerPolicy) {
+            client.circuitBreakerPolicy = circuitBreakerPolicy;
+            return this;
+        }
+    }
+}
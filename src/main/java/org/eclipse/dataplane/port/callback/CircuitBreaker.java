@@ -0,0 +1,72 @@
+package org.eclipse.dataplane.port.callback;
+
+/**
+ * Circuit breaker of a callback host.
+ * It opens after a number of consecutive failures, rejecting requests without sending them. Once the open duration
+ * has elapsed it becomes half open and lets a single trial request through: the circuit closes if that succeeds, and
+ * opens again otherwise.
+ */
+public class CircuitBreaker {
+
+    private final CircuitBreakerPolicy policy;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(CircuitBreakerPolicy policy) {
+        this.policy = policy;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && openElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Whether a request can be sent: always when closed, never when open, only one at a time when half open.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && openElapsed()) {
+            state = State.HALF_OPEN;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield false;
+                }
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= policy.getFailureThreshold()) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            trialInFlight = false;
+        }
+    }
+
+    private boolean openElapsed() {
+        return System.nanoTime() - openedAt >= policy.getOpenDuration().toNanos();
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
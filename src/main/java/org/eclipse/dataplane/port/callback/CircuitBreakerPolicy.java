@@ -0,0 +1,53 @@
+package org.eclipse.dataplane.port.callback;
+
+import java.time.Duration;
+
+/**
+ * Defines when the circuit breaker of a callback host opens, and for how long it stays open before letting a trial
+ * request through.
+ */
+public class CircuitBreakerPolicy {
+
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    public static CircuitBreakerPolicy.Builder newInstance() {
+        return new Builder();
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public static class Builder {
+        private final CircuitBreakerPolicy policy = new CircuitBreakerPolicy();
+
+        private Builder() {
+
+        }
+
+        public CircuitBreakerPolicy build() {
+            return policy;
+        }
+
+        /**
+         * Number of consecutive failed requests that opens the circuit.
+         */
+        public Builder failureThreshold(int failureThreshold) {
+            policy.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * Time the circuit stays open, rejecting all requests, before a trial request is let through.
+         */
+        public Builder openDuration(Duration openDuration) {
+            policy.openDuration = openDuration;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.eclipse.dataplane.port.callback;
+
+import org.eclipse.dataplane.port.exception.CallbackRejectedException;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Requests to a single callback host: at most a fixed number of them are in flight, the others wait in order.
+ * This way a burst of callbacks to the same host, e.g. when many flows fail at once, is funneled into a few
+ * connections instead of opening one per callback. Callbacks are not merged into fewer requests, as the control plane
+ * exposes one endpoint per flow: the waiting ones are only throttled here, while the same notification is never sent
+ * twice concurrently by the {@link NotificationDispatcher}.
+ * <p>
+ * The waiting requests are bounded too, and requests are rejected right away while the {@link CircuitBreaker} of the
+ * host is open, so a slow or unavailable host doesn't hold memory and sockets needed by the other ones.
+ */
+class HostLane {
+
+    private final int maxConcurrentRequests;
+    private final int maxWaitingRequests;
+    private final CircuitBreaker circuitBreaker;
+    private final Queue<Waiting<?>> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    HostLane(int maxConcurrentRequests, int maxWaitingRequests, CircuitBreaker circuitBreaker) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxWaitingRequests = maxWaitingRequests;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Run the request when there's room for it.
+     *
+     * @param request starts the request, returning a future that completes with it.
+     * @return a future that completes with the request, or fails with a {@link CallbackRejectedException} if the
+     * request cannot be sent.
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+        if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            return reject("circuit breaker is open");
+        }
+        if (waitingCount.incrementAndGet() > maxWaitingRequests) {
+            waitingCount.decrementAndGet();
+            return reject("too many requests waiting");
+        }
+        var entry = new Waiting<>(request, new CompletableFuture<T>());
+        waiting.add(entry);
+        drain();
+        return entry.result;
+    }
+
+    CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    int waiting() {
+        return waitingCount.get();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            var current = inFlight.get();
+            if (current >= maxConcurrentRequests) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            var next = waiting.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            waitingCount.decrementAndGet();
+            if (circuitBreaker.tryAcquire()) {
+                run(next);
+            } else {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                next.result.completeExceptionally(new CallbackRejectedException("circuit breaker is open"));
+            }
+        }
+    }
+
+    private <T> void run(Waiting<T> entry) {
+        start(entry.request).whenComplete((value, throwable) -> {
+            // complete first, so the outcome is recorded on the circuit breaker before the next request is let through
+            if (throwable == null) {
+                entry.result.complete(value);
+            } else {
+                entry.result.completeExceptionally(throwable);
+            }
+            inFlight.decrementAndGet();
+            drain();
+        });
+    }
+
+    private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> reject(String reason) {
+        rejected.increment();
+        return CompletableFuture.failedFuture(new CallbackRejectedException(reason));
+    }
+
+    private record Waiting<T>(Supplier<CompletableFuture<T>> request, CompletableFuture<T> result) {
+    }
+}
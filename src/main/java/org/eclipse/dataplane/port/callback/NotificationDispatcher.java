@@ -0,0 +1,114 @@
+package org.eclipse.dataplane.port.callback;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
+import org.eclipse.dataplane.port.exception.CallbackFailedException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+import org.eclipse.dataplane.port.store.AsyncDataFlowStore;
+import org.eclipse.dataplane.util.Mailboxes;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Delivers the pending notifications of the data flows, that act as an outbox: a notification is persisted with the
+ * data flow before being sent, and removed from it only once the control plane acknowledged it, so every notification
+ * is delivered at least once even if the process dies in the meantime.
+ * <p>
+ * The same notification is never sent twice concurrently, so the pending notifications can be dispatched again at any
+ * time, e.g. after a restart.
+ */
+public class NotificationDispatcher {
+
+    private static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final AsyncDataFlowStore store;
+    private final CallbackClient callbackClient;
+    private final Mailboxes mailboxes;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Create the dispatcher.
+     *
+     * @param store the store.
+     * @param callbackClient the client that sends the callbacks.
+     * @param mailboxes serializes the update of the delivered notifications with the other operations on the flow.
+     */
+    public NotificationDispatcher(AsyncDataFlowStore store, CallbackClient callbackClient, Mailboxes mailboxes) {
+        this.store = store;
+        this.callbackClient = callbackClient;
+        this.mailboxes = mailboxes;
+    }
+
+    /**
+     * Dispatch all the pending notifications of the data flow.
+     *
+     * @return a future that completes when all of them have been delivered.
+     */
+    public CompletableFuture<Void> dispatch(DataFlow dataFlow) {
+        var deliveries = dataFlow.getPendingNotifications().stream()
+                .map(notification -> dispatch(dataFlow, notification))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(deliveries);
+    }
+
+    /**
+     * Dispatch a notification that has already been persisted as pending with the data flow.
+     *
+     * @return a future that completes when the notification has been delivered and removed from the pending ones, or
+     * fails if it cannot be delivered: in that case it remains pending.
+     */
+    public CompletableFuture<Void> dispatch(DataFlow dataFlow, DataFlowNotification notification) {
+        var endpoint = dataFlow.getCallbackAddress() + "/transfers/" + dataFlow.getId() + "/dataflow/" + notification.type().path();
+        URI uri;
+        try {
+            uri = URI.create(endpoint);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new CallbackFailedException("Invalid callback endpoint " + endpoint, e));
+        }
+
+        var key = dataFlow.getId() + "/" + notification.type().path();
+        var created = new CompletableFuture<Void>();
+        var existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        callbackClient.send(uri, notification.body())
+                .thenCompose(sent -> mailboxes.submit(dataFlow.getId(), () -> markDelivered(dataFlow.getId(), notification, MAX_CONFLICT_RETRIES)))
+                .whenComplete((nothing, throwable) -> {
+                    inFlight.remove(key, created);
+                    if (throwable == null) {
+                        created.complete(null);
+                    } else {
+                        created.completeExceptionally(throwable);
+                    }
+                });
+        return created;
+    }
+
+    /**
+     * Remove the delivered notification from the latest version of the data flow, retrying on concurrent updates.
+     */
+    private CompletionStage<Void> markDelivered(String dataFlowId, DataFlowNotification notification, int retries) {
+        return store.findById(dataFlowId)
+                .thenCompose(found -> found
+                        .composeAsync(dataFlow -> dataFlow.notificationDelivered(notification)
+                                ? store.save(dataFlow)
+                                : CompletableFuture.completedFuture(Result.<Void>success())))
+                .thenCompose(result -> {
+                    try {
+                        result.orElseThrow();
+                        return CompletableFuture.completedFuture(null);
+                    } catch (DataFlowVersionConflictException e) {
+                        return retries > 0 ? markDelivered(dataFlowId, notification, retries - 1) : CompletableFuture.failedFuture(e);
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,84 @@
+package org.eclipse.dataplane.port.callback;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines how failed callbacks to the control plane are retried: with exponential backoff and full jitter, so that
+ * callbacks failed at the same time don't retry in lockstep, until either the max attempts or the max duration are
+ * reached.
+ */
+public class RetryPolicy {
+
+    private Duration initialDelay = Duration.ofMillis(500);
+    private Duration maxDelay = Duration.ofSeconds(30);
+    private double multiplier = 2.0;
+    private int maxAttempts = 10;
+    private Duration maxDuration = Duration.ofMinutes(10);
+
+    public static RetryPolicy.Builder newInstance() {
+        return new Builder();
+    }
+
+    /**
+     * Delay before the given retry: a random value between zero and the exponential backoff.
+     *
+     * @param retry the retry number, starting from 1.
+     * @return the delay.
+     */
+    public Duration delayBefore(int retry) {
+        var backoff = Math.min(maxDelay.toMillis(), initialDelay.toMillis() * Math.pow(multiplier, retry - 1));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong((long) backoff + 1));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public static class Builder {
+        private final RetryPolicy policy = new RetryPolicy();
+
+        private Builder() {
+
+        }
+
+        public RetryPolicy build() {
+            return policy;
+        }
+
+        public Builder initialDelay(Duration initialDelay) {
+            policy.initialDelay = initialDelay;
+            return this;
+        }
+
+        public Builder maxDelay(Duration maxDelay) {
+            policy.maxDelay = maxDelay;
+            return this;
+        }
+
+        public Builder multiplier(double multiplier) {
+            policy.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Max number of attempts, including the first one.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            policy.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Time after the first attempt after which no more retries are done.
+         */
+        public Builder maxDuration(Duration maxDuration) {
+            policy.maxDuration = maxDuration;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.eclipse.dataplane.port.exception;
+
+import java.time.Duration;
+
+/**
+ * A data flow has not been accepted because a limit of the admission policy has been reached.
+ */
+public class AdmissionRejectedException extends Exception {
+
+    private final Limit limit;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String message, Limit limit, Duration retryAfter) {
+        super(message);
+        this.limit = limit;
+        this.retryAfter = retryAfter;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public enum Limit {
+        ACTIVE_FLOWS,
+        ACTIVE_FLOWS_PER_TRANSFER_TYPE,
+        IN_FLIGHT_HANDLERS
+    }
+}
@@ -0,0 +1,11 @@
+package org.eclipse.dataplane.port.exception;
+
+public class CallbackFailedException extends Exception {
+    public CallbackFailedException(String message) {
+        super(message);
+    }
+
+    public CallbackFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package org.eclipse.dataplane.port.exception;
+
+/**
+ * A callback has not been sent at all, because its host is considered unavailable or is already overloaded.
+ */
+public class CallbackRejectedException extends Exception {
+    public CallbackRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.eclipse.dataplane.port.exception;
+
+public class DataFlowVersionConflictException extends Exception {
+    public DataFlowVersionConflictException(String message) {
+        super(message);
+    }
+}
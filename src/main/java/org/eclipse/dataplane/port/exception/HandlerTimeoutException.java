@@ -0,0 +1,10 @@
+package org.eclipse.dataplane.port.exception;
+
+/**
+ * A handler didn't complete within its timeout, and has been cancelled.
+ */
+public class HandlerTimeoutException extends Exception {
+    public HandlerTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package org.eclipse.dataplane.port.exception;
+
+/**
+ * A data flow has been asked to transition to a state that cannot follow its current one, e.g. a late completion of
+ * a flow that has already been terminated.
+ */
+public class IllegalTransitionException extends IllegalStateException {
+    public IllegalTransitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,75 @@
+package org.eclipse.dataplane.port.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes values of a given type, null included.
+ */
+interface JsonCodec<V> {
+
+    JsonCodec<String> STRING = new JsonCodec<>() {
+        @Override
+        public String read(JsonParser parser) throws IOException {
+            return parser.nextString();
+        }
+
+        @Override
+        public void write(JsonWriter writer, String value) throws IOException {
+            writer.value(value);
+        }
+    };
+
+    /**
+     * Free-form object, e.g. metadata, with values of any type.
+     */
+    JsonCodec<Map<String, Object>> OBJECT = new JsonCodec<>() {
+        @Override
+        public Map<String, Object> read(JsonParser parser) throws IOException {
+            return parser.nextObject();
+        }
+
+        @Override
+        public void write(JsonWriter writer, Map<String, Object> value) throws IOException {
+            writer.value((Object) value);
+        }
+    };
+
+    V read(JsonParser parser) throws IOException;
+
+    void write(JsonWriter writer, V value) throws IOException;
+
+    static <V> JsonCodec<List<V>> listOf(JsonCodec<V> elementCodec) {
+        return new JsonCodec<>() {
+            @Override
+            public List<V> read(JsonParser parser) throws IOException {
+                if (parser.nextNull()) {
+                    return null;
+                }
+                var list = new ArrayList<V>();
+                parser.beginArray();
+                if (parser.firstElement()) {
+                    do {
+                        list.add(elementCodec.read(parser));
+                    } while (parser.nextElement());
+                }
+                return list;
+            }
+
+            @Override
+            public void write(JsonWriter writer, List<V> value) throws IOException {
+                if (value == null) {
+                    writer.nullValue();
+                    return;
+                }
+                writer.beginArray();
+                for (var element : value) {
+                    elementCodec.write(writer, element);
+                }
+                writer.endArray();
+            }
+        };
+    }
+}
@@ -0,0 +1,452 @@
+package org.eclipse.dataplane.port.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON parser: it reads the tokens from a buffered {@link Reader} as they are asked for, without building a
+ * tree. Strings that don't contain escapes are created straight from the buffer.
+ * <p>
+ * Objects are iterated as:
+ * <pre>
+ * parser.beginObject();
+ * for (var name = parser.firstName(); name != null; name = parser.nextName()) { ... }
+ * </pre>
+ * and arrays in the same way, with {@link #firstElement()} and {@link #nextElement()}.
+ */
+final class JsonParser {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DEPTH = 256;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder scratch = new StringBuilder();
+    private int position;
+    private int limit;
+    private long consumed;
+    private int depth;
+
+    JsonParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Consume a null, if it's the next value.
+     *
+     * @return true if the next value was null.
+     */
+    boolean nextNull() throws IOException {
+        if (peek() != 'n') {
+            return false;
+        }
+        literal("null");
+        return true;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        enter();
+    }
+
+    /**
+     * Read the name of the first field of the object.
+     *
+     * @return the name, null if the object is empty, in which case it has been consumed.
+     */
+    String firstName() throws IOException {
+        if (closed('}')) {
+            return null;
+        }
+        return name();
+    }
+
+    /**
+     * Read the name of the next field of the object.
+     *
+     * @return the name, null if there are no more fields, in which case the object has been consumed.
+     */
+    String nextName() throws IOException {
+        if (closed('}')) {
+            return null;
+        }
+        expect(',');
+        return name();
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        enter();
+    }
+
+    /**
+     * @return true if the array has a first element, otherwise it has been consumed.
+     */
+    boolean firstElement() throws IOException {
+        return !closed(']');
+    }
+
+    /**
+     * @return true if the array has another element, otherwise it has been consumed.
+     */
+    boolean nextElement() throws IOException {
+        return more(']');
+    }
+
+    /**
+     * @return the string, or null.
+     */
+    String nextString() throws IOException {
+        if (nextNull()) {
+            return null;
+        }
+        if (peek() != '"') {
+            throw syntax("Expected a string");
+        }
+        return string();
+    }
+
+    /**
+     * @return the object as a map, or null.
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> nextObject() throws IOException {
+        if (nextNull()) {
+            return null;
+        }
+        if (peek() != '{') {
+            throw syntax("Expected an object");
+        }
+        return (Map<String, Object>) nextValue();
+    }
+
+    /**
+     * Read any value: objects become maps, arrays lists, and numbers integers, longs, big integers or doubles,
+     * depending on their form and size.
+     */
+    Object nextValue() throws IOException {
+        return switch (peek()) {
+            case '{' -> {
+                var map = new LinkedHashMap<String, Object>();
+                beginObject();
+                for (var name = firstName(); name != null; name = nextName()) {
+                    map.put(name, nextValue());
+                }
+                yield map;
+            }
+            case '[' -> {
+                var list = new ArrayList<>();
+                beginArray();
+                if (firstElement()) {
+                    do {
+                        list.add(nextValue());
+                    } while (nextElement());
+                }
+                yield list;
+            }
+            case '"' -> string();
+            case 't' -> {
+                literal("true");
+                yield Boolean.TRUE;
+            }
+            case 'f' -> {
+                literal("false");
+                yield Boolean.FALSE;
+            }
+            case 'n' -> {
+                literal("null");
+                yield null;
+            }
+            case -1 -> throw syntax("Unexpected end of input");
+            default -> number();
+        };
+    }
+
+    /**
+     * Skip any value, e.g. the one of an unknown field: its syntax is checked, but nothing is built out of it.
+     */
+    void skipValue() throws IOException {
+        switch (peek()) {
+            case '{' -> {
+                beginObject();
+                if (!closed('}')) {
+                    do {
+                        if (peek() != '"') {
+                            throw syntax("Expected a field name");
+                        }
+                        skipString();
+                        expect(':');
+                        skipValue();
+                    } while (more('}'));
+                }
+            }
+            case '[' -> {
+                beginArray();
+                if (firstElement()) {
+                    do {
+                        skipValue();
+                    } while (nextElement());
+                }
+            }
+            case '"' -> skipString();
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            case -1 -> throw syntax("Unexpected end of input");
+            default -> skipNumber();
+        }
+    }
+
+    /**
+     * Verify that nothing but whitespace follows the value that has been read.
+     */
+    void end() throws IOException {
+        if (peek() != -1) {
+            throw syntax("Unexpected content after the value");
+        }
+    }
+
+    private String name() throws IOException {
+        if (peek() != '"') {
+            throw syntax("Expected a field name");
+        }
+        var name = string();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Consume what follows a member or an element: the closing character, or the separator of the next one.
+     *
+     * @return true if another member or element follows.
+     */
+    private boolean more(char close) throws IOException {
+        if (closed(close)) {
+            return false;
+        }
+        expect(',');
+        return true;
+    }
+
+    private boolean closed(char close) throws IOException {
+        if (peek() != close) {
+            return false;
+        }
+        position++;
+        depth--;
+        return true;
+    }
+
+    private void enter() throws SyntaxException {
+        if (++depth > MAX_DEPTH) {
+            throw syntax("Nesting deeper than " + MAX_DEPTH);
+        }
+    }
+
+    /**
+     * Read a string, the opening quote having been peeked.
+     */
+    private String string() throws IOException {
+        var start = ++position;
+        while (position < limit) {
+            var c = buffer[position];
+            if (c == '"') {
+                return new String(buffer, start, position++ - start);
+            }
+            if (c == '\\' || c < 0x20) {
+                break;
+            }
+            position++;
+        }
+
+        scratch.setLength(0);
+        scratch.append(buffer, start, position - start);
+        while (true) {
+            var c = (char) read();
+            if (c == '"') {
+                return scratch.toString();
+            } else if (c == '\\') {
+                scratch.append(escaped());
+            } else if (c < 0x20) {
+                throw syntax("Unescaped control character in string");
+            } else {
+                scratch.append(c);
+            }
+        }
+    }
+
+    private char escaped() throws IOException {
+        var c = (char) read();
+        return switch (c) {
+            case '"', '\\', '/' -> c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                var code = 0;
+                for (var i = 0; i < 4; i++) {
+                    var digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntax("Invalid unicode escape");
+                    }
+                    code = (code << 4) | digit;
+                }
+                yield (char) code;
+            }
+            default -> throw syntax("Invalid escape '\\" + c + "'");
+        };
+    }
+
+    /**
+     * Skip a string, the opening quote having been peeked.
+     */
+    private void skipString() throws IOException {
+        position++;
+        while (true) {
+            var c = (char) read();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                escaped();
+            } else if (c < 0x20) {
+                throw syntax("Unescaped control character in string");
+            }
+        }
+    }
+
+    private void skipNumber() throws IOException {
+        accept('-');
+        var valid = digits() > 0;
+        if (accept('.')) {
+            valid &= digits() > 0;
+        }
+        if (accept('e') || accept('E')) {
+            if (!accept('+')) {
+                accept('-');
+            }
+            valid &= digits() > 0;
+        }
+        if (!valid) {
+            throw syntax("Invalid number");
+        }
+    }
+
+    private int digits() throws IOException {
+        var count = 0;
+        while ((position < limit || fill()) && buffer[position] >= '0' && buffer[position] <= '9') {
+            position++;
+            count++;
+        }
+        return count;
+    }
+
+    private boolean accept(char expected) throws IOException {
+        if ((position < limit || fill()) && buffer[position] == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private Number number() throws IOException {
+        scratch.setLength(0);
+        var decimal = false;
+        while (position < limit || fill()) {
+            var c = buffer[position];
+            if (c == '.' || c == 'e' || c == 'E' || c == '+') {
+                decimal = true;
+            } else if ((c < '0' || c > '9') && c != '-') {
+                break;
+            }
+            scratch.append(c);
+            position++;
+        }
+        if (scratch.isEmpty()) {
+            throw syntax("Unexpected character '" + buffer[position] + "'");
+        }
+        var text = scratch.toString();
+        try {
+            if (decimal) {
+                return Double.parseDouble(text);
+            }
+            if (text.length() < 19) {
+                var value = Long.parseLong(text);
+                return value == (int) value ? (Number) (int) value : (Number) value;
+            }
+            var value = new BigInteger(text);
+            return value.bitLength() < Long.SIZE ? (Number) value.longValue() : value;
+        } catch (NumberFormatException e) {
+            throw syntax("Invalid number '" + text + "'");
+        }
+    }
+
+    private void literal(String literal) throws IOException {
+        for (var i = 0; i < literal.length(); i++) {
+            if (read() != literal.charAt(i)) {
+                throw syntax("Expected '" + literal + "'");
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw syntax("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Skip whitespace and return the next character without consuming it.
+     *
+     * @return the character, -1 at the end of the input.
+     */
+    private int peek() throws IOException {
+        while (position < limit || fill()) {
+            var c = buffer[position];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            throw syntax("Unexpected end of input");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        var read = reader.read(buffer);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private SyntaxException syntax(String message) {
+        return new SyntaxException("%s at offset %d".formatted(message, consumed + position));
+    }
+
+    /**
+     * The input is not valid JSON.
+     */
+    static class SyntaxException extends IOException {
+        SyntaxException(String message) {
+            super(message);
+        }
+    }
+}
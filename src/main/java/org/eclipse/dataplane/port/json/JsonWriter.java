@@ -0,0 +1,139 @@
+package org.eclipse.dataplane.port.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Streaming JSON writer: values are written to the {@link Writer} as they come, separators are added as needed.
+ */
+final class JsonWriter {
+
+    private final Writer writer;
+    private boolean separate;
+
+    JsonWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    void beginObject() throws IOException {
+        separator();
+        writer.write('{');
+        separate = false;
+    }
+
+    void endObject() throws IOException {
+        writer.write('}');
+        separate = true;
+    }
+
+    void beginArray() throws IOException {
+        separator();
+        writer.write('[');
+        separate = false;
+    }
+
+    void endArray() throws IOException {
+        writer.write(']');
+        separate = true;
+    }
+
+    void name(String name) throws IOException {
+        separator();
+        string(name);
+        writer.write(':');
+        separate = false;
+    }
+
+    /**
+     * Write a field name that has already been quoted and followed by the colon, e.g. {@code "type":}.
+     */
+    void quotedName(String quotedName) throws IOException {
+        separator();
+        writer.write(quotedName);
+        separate = false;
+    }
+
+    void nullValue() throws IOException {
+        separator();
+        writer.write("null");
+        separate = true;
+    }
+
+    void value(String value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        separator();
+        string(value);
+        separate = true;
+    }
+
+    /**
+     * Write any value: maps become objects, collections arrays, non-finite numbers and unknown types strings.
+     */
+    void value(Object value) throws IOException {
+        if (value == null) {
+            nullValue();
+        } else if (value instanceof String string) {
+            value(string);
+        } else if (value instanceof Double number && !Double.isFinite(number)
+                || value instanceof Float floatNumber && !Float.isFinite(floatNumber)) {
+            value(value.toString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            literal(value.toString());
+        } else if (value instanceof Map<?, ?> map) {
+            beginObject();
+            for (var entry : map.entrySet()) {
+                name(String.valueOf(entry.getKey()));
+                value(entry.getValue());
+            }
+            endObject();
+        } else if (value instanceof Collection<?> collection) {
+            beginArray();
+            for (var item : collection) {
+                value(item);
+            }
+            endArray();
+        } else {
+            value(value.toString());
+        }
+    }
+
+    private void literal(String literal) throws IOException {
+        separator();
+        writer.write(literal);
+        separate = true;
+    }
+
+    private void separator() throws IOException {
+        if (separate) {
+            writer.write(',');
+        }
+    }
+
+    private void string(String value) throws IOException {
+        writer.write('"');
+        var start = 0;
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            writer.write(value, start, i - start);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> writer.write("\\u%04x".formatted((int) c));
+            }
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+}
@@ -0,0 +1,94 @@
+package org.eclipse.dataplane.port.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads and writes a record as a JSON object, through a table of its fields built once: every field has a name, an
+ * accessor and the codec of its value, so no reflection is needed. When reading, the values are collected by field
+ * position and passed to the factory, unknown fields are skipped and missing ones are null.
+ */
+final class RecordCodec<T> implements JsonCodec<T> {
+
+    private final List<Field<T, ?>> fields;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final Function<Object[], T> factory;
+
+    private RecordCodec(List<Field<T, ?>> fields, Function<Object[], T> factory) {
+        this.fields = fields;
+        this.factory = factory;
+        for (var i = 0; i < fields.size(); i++) {
+            positions.put(fields.get(i).name(), i);
+        }
+    }
+
+    /**
+     * @param factory creates the record from the values of its fields, in the order they have been declared.
+     */
+    static <T> Builder<T> newInstance(Function<Object[], T> factory) {
+        return new Builder<>(factory);
+    }
+
+    @Override
+    public T read(JsonParser parser) throws IOException {
+        if (parser.nextNull()) {
+            return null;
+        }
+        var values = new Object[fields.size()];
+        parser.beginObject();
+        for (var name = parser.firstName(); name != null; name = parser.nextName()) {
+            var position = positions.get(name);
+            if (position == null) {
+                parser.skipValue();
+            } else {
+                values[position] = fields.get(position).codec().read(parser);
+            }
+        }
+        return factory.apply(values);
+    }
+
+    @Override
+    public void write(JsonWriter writer, T value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        for (var field : fields) {
+            field.write(writer, value);
+        }
+        writer.endObject();
+    }
+
+    private record Field<T, V>(String name, String quotedName, Function<T, V> accessor, JsonCodec<V> codec) {
+        void write(JsonWriter writer, T record) throws IOException {
+            writer.quotedName(quotedName);
+            codec.write(writer, accessor.apply(record));
+        }
+    }
+
+    static class Builder<T> {
+        private final List<Field<T, ?>> fields = new ArrayList<>();
+        private final Function<Object[], T> factory;
+
+        private Builder(Function<Object[], T> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * Add a field. The name must not need escaping.
+         */
+        <V> Builder<T> field(String name, Function<T, V> accessor, JsonCodec<V> codec) {
+            fields.add(new Field<>(name, "\"" + name + "\":", accessor, codec));
+            return this;
+        }
+
+        RecordCodec<T> build() {
+            return new RecordCodec<>(List.copyOf(fields), factory);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.eclipse.dataplane.port.json;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowResponseMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowStartMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * JSON reader and writer of the signaling messages, and of lists of them as received by the batch endpoints.
+ * Messages are parsed and written in a streaming way through field tables built once, so the host doesn't need a
+ * reflection based JSON provider for them. Unknown fields are ignored, malformed bodies are rejected as bad requests.
+ * <p>
+ * Register it together with the {@link org.eclipse.dataplane.port.DataPlaneSignalingApiController}.
+ */
+@Provider
+@Consumes(APPLICATION_JSON)
+@Produces(APPLICATION_JSON)
+public class SignalingMessageProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    private static final JsonCodec<List<String>> STRINGS = JsonCodec.listOf(JsonCodec.STRING);
+
+    private static final RecordCodec<DataAddress.EndpointProperty> ENDPOINT_PROPERTY = RecordCodec
+            .newInstance(values -> new DataAddress.EndpointProperty((String) values[0], (String) values[1], (String) values[2]))
+            .field("type", DataAddress.EndpointProperty::type, JsonCodec.STRING)
+            .field("name", DataAddress.EndpointProperty::name, JsonCodec.STRING)
+            .field("value", DataAddress.EndpointProperty::value, JsonCodec.STRING)
+            .build();
+
+    @SuppressWarnings("unchecked")
+    private static final RecordCodec<DataAddress> DATA_ADDRESS = RecordCodec
+            .newInstance(values -> new DataAddress((String) values[0], (String) values[1], (String) values[2],
+                    (List<DataAddress.EndpointProperty>) values[3]))
+            .field("type", DataAddress::type, JsonCodec.STRING)
+            .field("endpointType", DataAddress::endpointType, JsonCodec.STRING)
+            .field("endpoint", DataAddress::endpoint, JsonCodec.STRING)
+            .field("endpointProperties", DataAddress::endpointProperties, JsonCodec.listOf(ENDPOINT_PROPERTY))
+            .build();
+
+    @SuppressWarnings("unchecked")
+    private static final RecordCodec<DataFlowPrepareMessage> PREPARE_MESSAGE = RecordCodec
+            .newInstance(values -> new DataFlowPrepareMessage((String) values[0], (String) values[1], (String) values[2],
+                    (String) values[3], (String) values[4], (String) values[5], (String) values[6], (String) values[7],
+                    (String) values[8], (List<String>) values[9], (Map<String, Object>) values[10]))
+            .field("messageId", DataFlowPrepareMessage::messageId, JsonCodec.STRING)
+            .field("participantId", DataFlowPrepareMessage::participantId, JsonCodec.STRING)
+            .field("counterPartyId", DataFlowPrepareMessage::counterPartyId, JsonCodec.STRING)
+            .field("dataspaceContext", DataFlowPrepareMessage::dataspaceContext, JsonCodec.STRING)
+            .field("processId", DataFlowPrepareMessage::processId, JsonCodec.STRING)
+            .field("agreementId", DataFlowPrepareMessage::agreementId, JsonCodec.STRING)
+            .field("datasetId", DataFlowPrepareMessage::datasetId, JsonCodec.STRING)
+            .field("callbackAddress", DataFlowPrepareMessage::callbackAddress, JsonCodec.STRING)
+            .field("transferType", DataFlowPrepareMessage::transferType, JsonCodec.STRING)
+            .field("labels", DataFlowPrepareMessage::labels, STRINGS)
+            .field("metadata", DataFlowPrepareMessage::metadata, JsonCodec.OBJECT)
+            .build();
+
+    @SuppressWarnings("unchecked")
+    private static final RecordCodec<DataFlowStartMessage> START_MESSAGE = RecordCodec
+            .newInstance(values -> new DataFlowStartMessage((String) values[0], (String) values[1], (String) values[2],
+                    (String) values[3], (String) values[4], (String) values[5], (String) values[6], (String) values[7],
+                    (String) values[8], (DataAddress) values[9], (List<String>) values[10], (Map<String, Object>) values[11]))
+            .field("messageId", DataFlowStartMessage::messageId, JsonCodec.STRING)
+            .field("participantId", DataFlowStartMessage::participantId, JsonCodec.STRING)
+            .field("counterPartyId", DataFlowStartMessage::counterPartyId, JsonCodec.STRING)
+            .field("dataspaceContext", DataFlowStartMessage::dataspaceContext, JsonCodec.STRING)
+            .field("processId", DataFlowStartMessage::processId, JsonCodec.STRING)
+            .field("agreementId", DataFlowStartMessage::agreementId, JsonCodec.STRING)
+            .field("datasetId", DataFlowStartMessage::datasetId, JsonCodec.STRING)
+            .field("callbackAddress", DataFlowStartMessage::callbackAddress, JsonCodec.STRING)
+            .field("transferType", DataFlowStartMessage::transferType, JsonCodec.STRING)
+            .field("dataAddress", DataFlowStartMessage::dataAddress, DATA_ADDRESS)
+            .field("labels", DataFlowStartMessage::labels, STRINGS)
+            .field("metadata", DataFlowStartMessage::metadata, JsonCodec.OBJECT)
+            .build();
+
+    private static final RecordCodec<DataFlowResponseMessage> RESPONSE_MESSAGE = RecordCodec
+            .newInstance(values -> new DataFlowResponseMessage((String) values[0], (DataAddress) values[1],
+                    (String) values[2], (String) values[3]))
+            .field("dataplaneId", DataFlowResponseMessage::dataplaneId, JsonCodec.STRING)
+            .field("dataAddress", DataFlowResponseMessage::dataAddress, DATA_ADDRESS)
+            .field("state", DataFlowResponseMessage::state, JsonCodec.STRING)
+            .field("error", DataFlowResponseMessage::error, JsonCodec.STRING)
+            .build();
+
+    private static final Map<Class<?>, JsonCodec<?>> CODECS = Map.of(
+            DataFlowPrepareMessage.class, PREPARE_MESSAGE,
+            DataFlowStartMessage.class, START_MESSAGE,
+            DataFlowResponseMessage.class, RESPONSE_MESSAGE
+    );
+
+    private static final Map<Class<?>, JsonCodec<?>> LIST_CODECS = Map.of(
+            DataFlowPrepareMessage.class, JsonCodec.listOf(PREPARE_MESSAGE),
+            DataFlowStartMessage.class, JsonCodec.listOf(START_MESSAGE),
+            DataFlowResponseMessage.class, JsonCodec.listOf(RESPONSE_MESSAGE)
+    );
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return codecOf(type, genericType, isReadableList(type)) != null;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        var codec = codecOf(type, genericType, isReadableList(type));
+        var parser = new JsonParser(new InputStreamReader(entityStream, charsetOf(mediaType)));
+        try {
+            var value = codec.read(parser);
+            parser.end();
+            return value;
+        } catch (JsonParser.SyntaxException e) {
+            throw new BadRequestException("Malformed %s: %s".formatted(type.getSimpleName(), e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return codecOf(type, genericType, List.class.isAssignableFrom(type)) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        var codec = (JsonCodec<Object>) codecOf(type, genericType, List.class.isAssignableFrom(type));
+        var writer = new OutputStreamWriter(entityStream, charsetOf(mediaType));
+        codec.write(new JsonWriter(writer), value);
+        writer.flush();
+    }
+
+    private static JsonCodec<?> codecOf(Class<?> type, Type genericType, boolean list) {
+        if (!list) {
+            return CODECS.get(type);
+        }
+        if (genericType instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+            return LIST_CODECS.get(elementType);
+        }
+        return null;
+    }
+
+    /**
+     * Lists are read as {@link java.util.ArrayList}, so they can be assigned to these types only.
+     */
+    private static boolean isReadableList(Class<?> type) {
+        return type == List.class || type == Collection.class;
+    }
+
+    private static Charset charsetOf(MediaType mediaType) {
+        var charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        if (charset == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(charset);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
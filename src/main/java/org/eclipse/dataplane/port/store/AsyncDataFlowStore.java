@@ -0,0 +1,26 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking counterpart of {@link DataFlowStore}: every operation returns immediately, and the returned stage
+ * completes with the result once the underlying I/O is done.
+ * Obtained through {@link DataFlowStore#async(java.util.concurrent.Executor)}.
+ */
+public interface AsyncDataFlowStore {
+
+    CompletionStage<Result<Void>> save(DataFlow dataFlow);
+
+    CompletionStage<List<Result<Void>>> saveAll(List<DataFlow> dataFlows);
+
+    CompletionStage<Result<DataFlow>> findById(String flowId);
+
+    CompletionStage<Result<Void>> delete(String flowId);
+
+    CompletionStage<Result<Page<DataFlow>>> query(DataFlowQuery query, String cursor, int limit);
+
+}
@@ -0,0 +1,224 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link DataFlowStore} decorator that keeps the most recently used data flows in memory, so that repeated lookups of
+ * active flows don't hit a remote delegate.
+ * <p>
+ * Saves are written through to the delegate and cached only if they succeed, a failed save evicts the flow so that
+ * it gets read again from the delegate. A cached flow is never replaced by an older version, and a flow read from the
+ * delegate is not cached if it has been deleted or evicted in the meantime. The cache is split in segments, each one
+ * evicting its least recently used entry when full, so that concurrent lookups of different flows rarely contend.
+ * <p>
+ * Data flows are cached and returned as copies, so that changing a flow read from the cache doesn't change the cached
+ * one before it's saved, and the delegate can detect a save of a stale version.
+ */
+public class CachingDataFlowStore implements DataFlowStore {
+
+    private static final int SEGMENTS = 16;
+
+    private final DataFlowStore delegate;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create the cache.
+     *
+     * @param delegate the store being cached.
+     * @param maximumSize the maximum number of data flows cached.
+     */
+    public CachingDataFlowStore(DataFlowStore delegate, int maximumSize) {
+        this.delegate = delegate;
+        var segmentSize = Math.max(1, maximumSize / SEGMENTS);
+        for (var i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    @Override
+    public Result<Void> save(DataFlow dataFlow) {
+        var result = delegate.save(dataFlow);
+        var segment = segmentFor(dataFlow.getId());
+        if (result.succeeded()) {
+            segment.put(dataFlow);
+        } else {
+            segment.remove(dataFlow.getId());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Result<Void>> saveAll(List<DataFlow> dataFlows) {
+        var results = delegate.saveAll(dataFlows);
+        for (var i = 0; i < dataFlows.size(); i++) {
+            var dataFlow = dataFlows.get(i);
+            var segment = segmentFor(dataFlow.getId());
+            if (results.get(i).succeeded()) {
+                segment.put(dataFlow);
+            } else {
+                segment.remove(dataFlow.getId());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Result<DataFlow> findById(String flowId) {
+        var segment = segmentFor(flowId);
+        var cached = segment.get(flowId);
+        if (cached != null) {
+            hits.increment();
+            return Result.success(cached);
+        }
+
+        misses.increment();
+        var readAt = segment.invalidations();
+        var result = delegate.findById(flowId);
+        if (result.succeeded()) {
+            segment.putRead(result.getContent(), readAt);
+        }
+        return result;
+    }
+
+    @Override
+    public Result<Void> delete(String flowId) {
+        var result = delegate.delete(flowId);
+        segmentFor(flowId).remove(flowId);
+        return result;
+    }
+
+    @Override
+    public Result<Page<DataFlow>> query(DataFlowQuery query, String cursor, int limit) {
+        return delegate.query(query, cursor, limit);
+    }
+
+    public Stats stats() {
+        var size = 0;
+        for (var segment : segments) {
+            size += segment.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    private Segment segmentFor(String flowId) {
+        var hash = flowId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param hits number of lookups served from the cache.
+     * @param misses number of lookups forwarded to the delegate.
+     * @param evictions number of entries evicted because the cache was full.
+     * @param size current number of cached entries.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            var requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+    }
+
+    private class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<String, DataFlow> entries;
+        private long invalidations;
+
+        Segment(int maximumSize) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DataFlow> eldest) {
+                    var evict = size() > maximumSize;
+                    if (evict) {
+                        evictions.increment();
+                    }
+                    return evict;
+                }
+            };
+        }
+
+        DataFlow get(String flowId) {
+            DataFlow cached;
+            lock.lock();
+            try {
+                cached = entries.get(flowId);
+            } finally {
+                lock.unlock();
+            }
+            return cached == null ? null : cached.copy();
+        }
+
+        void put(DataFlow dataFlow) {
+            var cached = dataFlow.copy();
+            lock.lock();
+            try {
+                putNewer(cached);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Cache a data flow read from the delegate, unless an entry of the segment has been removed since the read
+         * started: the flow could have been deleted in the meantime, and caching it would bring it back.
+         */
+        void putRead(DataFlow dataFlow, long readAt) {
+            var cached = dataFlow.copy();
+            lock.lock();
+            try {
+                if (invalidations == readAt) {
+                    putNewer(cached);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String flowId) {
+            lock.lock();
+            try {
+                entries.remove(flowId);
+                invalidations++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long invalidations() {
+            lock.lock();
+            try {
+                return invalidations;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void putNewer(DataFlow dataFlow) {
+            var existing = entries.get(dataFlow.getId());
+            if (existing == null || existing.getVersion() <= dataFlow.getVersion()) {
+                entries.put(dataFlow.getId(), dataFlow);
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,586 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Compact binary representation of a {@link DataFlow}, used by the persistent stores and suitable for replication.
+ * <p>
+ * A record starts with the flow id, so it can be read by {@link #decodeId(ByteBuffer)} without decoding the rest, then
+ * the format version. Every other field is written as a key, made of the field number and of how its
+ * value is encoded, followed by the value: absent fields are not written at all and unknown fields are skipped, so
+ * fields can be added or removed without breaking the records written by other versions. Integers are written as
+ * varints, and nested values (data address, labels, metadata, notifications) are prefixed by their length.
+ * <p>
+ * Values are written straight into a {@link ByteBuffer} and read straight from it, without intermediate streams.
+ */
+public final class DataFlowCodec {
+
+    /**
+     * Version of the format written by this codec.
+     */
+    public static final int VERSION = 1;
+
+    // wire types
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int NESTED = 3;
+
+    // data flow fields
+    private static final int STATE = 1;
+    private static final int TRANSFER_TYPE = 2;
+    private static final int CALLBACK_ADDRESS = 3;
+    private static final int TERMINATION_REASON = 4;
+    private static final int LABELS = 5;
+    private static final int METADATA = 6;
+    private static final int DATA_ADDRESS = 7;
+    private static final int PENDING_NOTIFICATION = 8;
+    private static final int FLOW_VERSION = 9;
+
+    // nested fields
+    private static final int ITEM = 1;
+    private static final int ADDRESS_TYPE = 1;
+    private static final int ADDRESS_ENDPOINT_TYPE = 2;
+    private static final int ADDRESS_ENDPOINT = 3;
+    private static final int ADDRESS_PROPERTIES = 4;
+    private static final int PROPERTY_TYPE = 1;
+    private static final int PROPERTY_NAME = 2;
+    private static final int PROPERTY_VALUE = 3;
+    private static final int NOTIFICATION_TYPE = 1;
+    private static final int NOTIFICATION_BODY = 2;
+    private static final int ENTRY_KEY = 1;
+    private static final int ENTRY_VALUE = 2;
+
+    // metadata value tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+
+    /**
+     * States are written as codes rather than ordinals, so that reordering the enum doesn't change their meaning.
+     * New states must be appended.
+     */
+    private static final DataFlow.State[] STATES = {
+            DataFlow.State.INITIATING, DataFlow.State.PREPARING, DataFlow.State.PREPARED, DataFlow.State.STARTING,
+            DataFlow.State.STARTED, DataFlow.State.COMPLETED, DataFlow.State.TERMINATED
+    };
+    private static final int[] STATE_CODES = new int[DataFlow.State.values().length];
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(16);
+
+    static {
+        for (var code = 0; code < STATES.length; code++) {
+            STATE_CODES[STATES[code].ordinal()] = code;
+        }
+    }
+
+    private DataFlowCodec() {
+    }
+
+    /**
+     * Encode the data flow into a new array of the exact size, using a pooled buffer as scratch space.
+     */
+    public static byte[] encode(DataFlow dataFlow) {
+        var buffer = BUFFERS.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+        while (true) {
+            buffer.clear();
+            try {
+                encode(dataFlow, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+        var bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+            BUFFERS.offer(buffer);
+        }
+        return bytes;
+    }
+
+    /**
+     * Encode the data flow into the buffer, starting at its position.
+     *
+     * @param dataFlow the data flow.
+     * @param buffer the buffer, its position is moved after the record.
+     * @throws BufferOverflowException if the record doesn't fit, the buffer content is then undefined.
+     */
+    public static void encode(DataFlow dataFlow, ByteBuffer buffer) {
+        encodeId(dataFlow.getId(), buffer);
+        buffer.putInt(VERSION);
+
+        writeVarint(buffer, key(STATE, VARINT));
+        writeVarint(buffer, STATE_CODES[dataFlow.getState().ordinal()]);
+        writeString(buffer, TRANSFER_TYPE, dataFlow.getTransferType());
+        writeString(buffer, CALLBACK_ADDRESS, dataFlow.getCallbackAddress());
+        writeString(buffer, TERMINATION_REASON, dataFlow.getTerminationReason());
+        if (dataFlow.getLabels() != null) {
+            var labels = beginNested(buffer, LABELS);
+            for (var label : dataFlow.getLabels()) {
+                writeString(buffer, ITEM, label);
+            }
+            endNested(buffer, labels);
+        }
+        if (dataFlow.getMetadata() != null) {
+            var metadata = beginNested(buffer, METADATA);
+            writeEntries(buffer, dataFlow.getMetadata());
+            endNested(buffer, metadata);
+        }
+        if (dataFlow.getDataAddress() != null) {
+            writeDataAddress(buffer, dataFlow.getDataAddress());
+        }
+        for (var notification : dataFlow.getPendingNotifications()) {
+            var nested = beginNested(buffer, PENDING_NOTIFICATION);
+            writeString(buffer, NOTIFICATION_TYPE, notification.type().name());
+            writeString(buffer, NOTIFICATION_BODY, notification.body());
+            endNested(buffer, nested);
+        }
+        writeVarint(buffer, key(FLOW_VERSION, VARINT));
+        writeVarint(buffer, dataFlow.getVersion());
+    }
+
+    /**
+     * Decode a data flow, reading the buffer from its position to its limit.
+     *
+     * @param buffer the buffer, its position is moved to its limit.
+     * @return the data flow.
+     * @throws IllegalArgumentException if the record is malformed.
+     */
+    public static DataFlow decode(ByteBuffer buffer) {
+        try {
+            var id = decodeId(buffer);
+            var version = buffer.getInt();
+            if (version < 1) {
+                throw new IllegalArgumentException("Unknown DataFlow record version " + version);
+            }
+            // records of newer versions are readable as well, their unknown fields are skipped
+            return decodeFields(id, buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated DataFlow record", e);
+        }
+    }
+
+    /**
+     * Encode only a flow id, in a form that can be read by {@link #decodeId(ByteBuffer)}.
+     */
+    public static byte[] encodeId(String flowId) {
+        var buffer = ByteBuffer.allocate(Integer.BYTES + utf8Length(flowId));
+        encodeId(flowId, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Read only the flow id from an encoded record, without decoding the rest of it.
+     *
+     * @param buffer the buffer, its position is moved after the id.
+     */
+    public static String decodeId(ByteBuffer buffer) {
+        return readUtf8(buffer, buffer.getInt());
+    }
+
+    private static void encodeId(String flowId, ByteBuffer buffer) {
+        buffer.putInt(utf8Length(flowId));
+        writeUtf8(buffer, flowId);
+    }
+
+    private static DataFlow decodeFields(String id, ByteBuffer buffer) {
+        var builder = DataFlow.newInstance().id(id);
+        var notifications = new ArrayList<DataFlowNotification>();
+        while (buffer.hasRemaining()) {
+            var key = (int) readVarint(buffer);
+            switch (key) {
+                case (STATE << 3) | VARINT -> builder.state(STATES[(int) readVarint(buffer)]);
+                case (TRANSFER_TYPE << 3) | LENGTH_DELIMITED -> builder.transferType(readString(buffer));
+                case (CALLBACK_ADDRESS << 3) | LENGTH_DELIMITED -> builder.callbackAddress(readString(buffer));
+                case (TERMINATION_REASON << 3) | LENGTH_DELIMITED -> builder.terminationReason(readString(buffer));
+                case (LABELS << 3) | NESTED -> builder.labels(readLabels(buffer));
+                case (METADATA << 3) | NESTED -> builder.metadata(readEntries(buffer));
+                case (DATA_ADDRESS << 3) | NESTED -> builder.dataAddress(readDataAddress(buffer));
+                case (PENDING_NOTIFICATION << 3) | NESTED -> notifications.add(readNotification(buffer));
+                case (FLOW_VERSION << 3) | VARINT -> builder.version(readVarint(buffer));
+                default -> skip(buffer, key);
+            }
+        }
+        return builder.pendingNotifications(notifications).build();
+    }
+
+    private static void writeDataAddress(ByteBuffer buffer, DataAddress dataAddress) {
+        var nested = beginNested(buffer, DATA_ADDRESS);
+        writeString(buffer, ADDRESS_TYPE, dataAddress.type());
+        writeString(buffer, ADDRESS_ENDPOINT_TYPE, dataAddress.endpointType());
+        writeString(buffer, ADDRESS_ENDPOINT, dataAddress.endpoint());
+        if (dataAddress.endpointProperties() != null) {
+            var properties = beginNested(buffer, ADDRESS_PROPERTIES);
+            for (var property : dataAddress.endpointProperties()) {
+                var item = beginNested(buffer, ITEM);
+                writeString(buffer, PROPERTY_TYPE, property.type());
+                writeString(buffer, PROPERTY_NAME, property.name());
+                writeString(buffer, PROPERTY_VALUE, property.value());
+                endNested(buffer, item);
+            }
+            endNested(buffer, properties);
+        }
+        endNested(buffer, nested);
+    }
+
+    private static DataAddress readDataAddress(ByteBuffer buffer) {
+        var end = nestedEnd(buffer);
+        String type = null;
+        String endpointType = null;
+        String endpoint = null;
+        List<DataAddress.EndpointProperty> properties = null;
+        while (buffer.position() < end) {
+            var key = (int) readVarint(buffer);
+            switch (key) {
+                case (ADDRESS_TYPE << 3) | LENGTH_DELIMITED -> type = readString(buffer);
+                case (ADDRESS_ENDPOINT_TYPE << 3) | LENGTH_DELIMITED -> endpointType = readString(buffer);
+                case (ADDRESS_ENDPOINT << 3) | LENGTH_DELIMITED -> endpoint = readString(buffer);
+                case (ADDRESS_PROPERTIES << 3) | NESTED -> properties = readEndpointProperties(buffer);
+                default -> skip(buffer, key);
+            }
+        }
+        return new DataAddress(type, endpointType, endpoint, properties);
+    }
+
+    private static List<DataAddress.EndpointProperty> readEndpointProperties(ByteBuffer buffer) {
+        var end = nestedEnd(buffer);
+        var properties = new ArrayList<DataAddress.EndpointProperty>();
+        while (buffer.position() < end) {
+            var key = (int) readVarint(buffer);
+            if (key != ((ITEM << 3) | NESTED)) {
+                skip(buffer, key);
+                continue;
+            }
+            var itemEnd = nestedEnd(buffer);
+            String type = null;
+            String name = null;
+            String value = null;
+            while (buffer.position() < itemEnd) {
+                var itemKey = (int) readVarint(buffer);
+                switch (itemKey) {
+                    case (PROPERTY_TYPE << 3) | LENGTH_DELIMITED -> type = readString(buffer);
+                    case (PROPERTY_NAME << 3) | LENGTH_DELIMITED -> name = readString(buffer);
+                    case (PROPERTY_VALUE << 3) | LENGTH_DELIMITED -> value = readString(buffer);
+                    default -> skip(buffer, itemKey);
+                }
+            }
+            properties.add(new DataAddress.EndpointProperty(type, name, value));
+        }
+        return properties;
+    }
+
+    private static List<String> readLabels(ByteBuffer buffer) {
+        var end = nestedEnd(buffer);
+        var labels = new ArrayList<String>();
+        while (buffer.position() < end) {
+            var key = (int) readVarint(buffer);
+            if (key == ((ITEM << 3) | LENGTH_DELIMITED)) {
+                labels.add(readString(buffer));
+            } else {
+                skip(buffer, key);
+            }
+        }
+        return labels;
+    }
+
+    private static DataFlowNotification readNotification(ByteBuffer buffer) {
+        var end = nestedEnd(buffer);
+        DataFlowNotification.Type type = null;
+        String body = null;
+        while (buffer.position() < end) {
+            var key = (int) readVarint(buffer);
+            switch (key) {
+                case (NOTIFICATION_TYPE << 3) | LENGTH_DELIMITED -> type = DataFlowNotification.Type.valueOf(readString(buffer));
+                case (NOTIFICATION_BODY << 3) | LENGTH_DELIMITED -> body = readString(buffer);
+                default -> skip(buffer, key);
+            }
+        }
+        return new DataFlowNotification(type, body);
+    }
+
+    /**
+     * Write the map entries, every one as a nested key and value.
+     */
+    private static void writeEntries(ByteBuffer buffer, Map<?, ?> map) {
+        for (var entry : map.entrySet()) {
+            var nested = beginNested(buffer, ITEM);
+            writeString(buffer, ENTRY_KEY, String.valueOf(entry.getKey()));
+            var value = beginNested(buffer, ENTRY_VALUE);
+            writeValue(buffer, entry.getValue());
+            endNested(buffer, value);
+            endNested(buffer, nested);
+        }
+    }
+
+    private static Map<String, Object> readEntries(ByteBuffer buffer) {
+        var end = nestedEnd(buffer);
+        var map = new LinkedHashMap<String, Object>();
+        while (buffer.position() < end) {
+            var key = (int) readVarint(buffer);
+            if (key != ((ITEM << 3) | NESTED)) {
+                skip(buffer, key);
+                continue;
+            }
+            var entryEnd = nestedEnd(buffer);
+            String entryKey = null;
+            Object value = null;
+            while (buffer.position() < entryEnd) {
+                var entryField = (int) readVarint(buffer);
+                switch (entryField) {
+                    case (ENTRY_KEY << 3) | LENGTH_DELIMITED -> entryKey = readString(buffer);
+                    case (ENTRY_VALUE << 3) | NESTED -> {
+                        nestedEnd(buffer);
+                        value = readValue(buffer);
+                    }
+                    default -> skip(buffer, entryField);
+                }
+            }
+            map.put(entryKey, value);
+        }
+        return map;
+    }
+
+    /**
+     * Write a metadata value, prefixed by a tag telling its type. Values of other types are written as strings.
+     */
+    private static void writeValue(ByteBuffer buffer, Object value) {
+        if (value == null) {
+            buffer.put(NULL);
+        } else if (value instanceof String string) {
+            buffer.put(STRING);
+            writeVarint(buffer, utf8Length(string));
+            writeUtf8(buffer, string);
+        } else if (value instanceof Integer integer) {
+            buffer.put(INTEGER);
+            writeVarint(buffer, zigZag(integer));
+        } else if (value instanceof Long longValue) {
+            buffer.put(LONG);
+            writeVarint(buffer, zigZag(longValue));
+        } else if (value instanceof Number number) {
+            buffer.put(DOUBLE);
+            buffer.putDouble(number.doubleValue());
+        } else if (value instanceof Boolean booleanValue) {
+            buffer.put(BOOLEAN);
+            buffer.put((byte) (booleanValue ? 1 : 0));
+        } else if (value instanceof List<?> list) {
+            buffer.put(LIST);
+            writeVarint(buffer, list.size());
+            for (var item : list) {
+                writeValue(buffer, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            buffer.put(MAP);
+            writeVarint(buffer, map.size());
+            for (var entry : map.entrySet()) {
+                var key = String.valueOf(entry.getKey());
+                writeVarint(buffer, utf8Length(key));
+                writeUtf8(buffer, key);
+                writeValue(buffer, entry.getValue());
+            }
+        } else {
+            writeValue(buffer, value.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        var tag = buffer.get();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> readUtf8(buffer, (int) readVarint(buffer));
+            case INTEGER -> (int) unZigZag(readVarint(buffer));
+            case LONG -> unZigZag(readVarint(buffer));
+            case DOUBLE -> buffer.getDouble();
+            case BOOLEAN -> buffer.get() != 0;
+            case LIST -> {
+                var size = (int) readVarint(buffer);
+                var list = new ArrayList<>(size);
+                for (var i = 0; i < size; i++) {
+                    list.add(readValue(buffer));
+                }
+                yield list;
+            }
+            case MAP -> {
+                var size = (int) readVarint(buffer);
+                var map = new LinkedHashMap<String, Object>(size);
+                for (var i = 0; i < size; i++) {
+                    map.put(readUtf8(buffer, (int) readVarint(buffer)), readValue(buffer));
+                }
+                yield map;
+            }
+            default -> throw new IllegalArgumentException("Unknown value tag " + tag);
+        };
+    }
+
+    private static void writeString(ByteBuffer buffer, int field, String value) {
+        if (value == null) {
+            return;
+        }
+        writeVarint(buffer, key(field, LENGTH_DELIMITED));
+        writeVarint(buffer, utf8Length(value));
+        writeUtf8(buffer, value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        return readUtf8(buffer, (int) readVarint(buffer));
+    }
+
+    /**
+     * Start a nested value, reserving room for its length.
+     *
+     * @return the position of the length, to be passed to {@link #endNested(ByteBuffer, int)}.
+     */
+    private static int beginNested(ByteBuffer buffer, int field) {
+        writeVarint(buffer, key(field, NESTED));
+        var start = buffer.position();
+        buffer.putInt(0);
+        return start;
+    }
+
+    private static void endNested(ByteBuffer buffer, int start) {
+        buffer.putInt(start, buffer.position() - start - Integer.BYTES);
+    }
+
+    /**
+     * Read the length of a nested value.
+     *
+     * @return the position where the nested value ends.
+     */
+    private static int nestedEnd(ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid nested value length " + length);
+        }
+        return buffer.position() + length;
+    }
+
+    private static void skip(ByteBuffer buffer, int key) {
+        switch (key & 0x7) {
+            case VARINT -> readVarint(buffer);
+            case FIXED64 -> buffer.position(buffer.position() + Long.BYTES);
+            case LENGTH_DELIMITED -> buffer.position(buffer.position() + (int) readVarint(buffer));
+            case NESTED -> buffer.position(nestedEnd(buffer));
+            default -> throw new IllegalArgumentException("Unknown wire type of key " + key);
+        }
+    }
+
+    private static int key(int field, int wireType) {
+        return (field << 3) | wireType;
+    }
+
+    private static void writeVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Length of the UTF-8 encoding of the string, unpaired surrogates being encoded as '?' as {@link String#getBytes}
+     * does.
+     */
+    private static int utf8Length(String string) {
+        var length = string.length();
+        var bytes = length;
+        for (var i = 0; i < length; i++) {
+            var c = string.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    private static void writeUtf8(ByteBuffer buffer, String string) {
+        var length = string.length();
+        for (var i = 0; i < length; i++) {
+            var c = string.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                var codePoint = Character.toCodePoint(c, string.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String readUtf8(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+        String string;
+        if (buffer.hasArray()) {
+            string = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            var bytes = new byte[length];
+            buffer.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return string;
+    }
+}
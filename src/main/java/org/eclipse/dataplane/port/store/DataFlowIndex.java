@@ -0,0 +1,171 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory secondary indexes of data flow ids by state, transfer type, label and pending notifications, kept sorted by id so that they
+ * can be paged through with a cursor.
+ * Updates of the same flow are serialized, while queries never block and verify every candidate against the latest
+ * indexed keys, so they never return a flow that doesn't match.
+ */
+class DataFlowIndex {
+
+    private final Map<String, Keys> keys = new ConcurrentHashMap<>();
+    private final Ids all = new Ids();
+    private final Map<DataFlow.State, Ids> byState = new EnumMap<>(DataFlow.State.class);
+    private final Map<String, Ids> byTransferType = new ConcurrentHashMap<>();
+    private final Map<String, Ids> byLabel = new ConcurrentHashMap<>();
+    private final Ids withPendingNotifications = new Ids();
+
+    DataFlowIndex() {
+        for (var state : DataFlow.State.values()) {
+            byState.put(state, new Ids());
+        }
+    }
+
+    void update(DataFlow dataFlow) {
+        var updated = Keys.of(dataFlow);
+        keys.compute(dataFlow.getId(), (id, previous) -> {
+            if (previous != null) {
+                unindex(id, previous, updated);
+            }
+            all.add(id);
+            byState.get(updated.state).add(id);
+            if (updated.transferType != null) {
+                add(byTransferType, updated.transferType, id);
+            }
+            for (var label : updated.labels) {
+                add(byLabel, label, id);
+            }
+            if (updated.pendingNotifications) {
+                withPendingNotifications.add(id);
+            }
+            return updated;
+        });
+    }
+
+    void remove(String flowId) {
+        keys.computeIfPresent(flowId, (id, previous) -> {
+            unindex(id, previous, null);
+            all.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Find the ids of the flows matching the query, in order, starting after the cursor.
+     */
+    List<String> find(DataFlowQuery query, String cursor, int limit) {
+        var candidates = Stream.of(
+                        all,
+                        query.getState() == null ? null : byState.get(query.getState()),
+                        query.getTransferType() == null ? null : byTransferType.getOrDefault(query.getTransferType(), Ids.EMPTY),
+                        query.getLabel() == null ? null : byLabel.getOrDefault(query.getLabel(), Ids.EMPTY),
+                        query.isWithPendingNotifications() ? withPendingNotifications : null)
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(Ids::size))
+                .orElse(all);
+
+        var tail = cursor == null ? candidates.ids : candidates.ids.tailSet(cursor, false);
+        var result = new ArrayList<String>(Math.min(limit, 64));
+        for (var id : tail) {
+            if (result.size() >= limit) {
+                break;
+            }
+            var indexed = keys.get(id);
+            if (indexed != null && indexed.matches(query)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void unindex(String id, Keys previous, Keys updated) {
+        if (updated == null || previous.state != updated.state) {
+            byState.get(previous.state).remove(id);
+        }
+        if (previous.transferType != null && (updated == null || !previous.transferType.equals(updated.transferType))) {
+            remove(byTransferType, previous.transferType, id);
+        }
+        for (var label : previous.labels) {
+            if (updated == null || !updated.labels.contains(label)) {
+                remove(byLabel, label, id);
+            }
+        }
+        if (previous.pendingNotifications && (updated == null || !updated.pendingNotifications)) {
+            withPendingNotifications.remove(id);
+        }
+    }
+
+    private static void add(Map<String, Ids> index, String key, String id) {
+        index.compute(key, (k, ids) -> {
+            var updated = ids == null ? new Ids() : ids;
+            updated.add(id);
+            return updated;
+        });
+    }
+
+    /**
+     * Remove the id, and the key as well once it has no ids left: transfer types and labels come from the requests, so
+     * the keys would otherwise grow without bound.
+     */
+    private static void remove(Map<String, Ids> index, String key, String id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.size() == 0 ? null : ids;
+        });
+    }
+
+    /**
+     * Sorted set of ids that keeps track of its size, as {@link ConcurrentSkipListSet#size()} is a linear operation.
+     */
+    private static class Ids {
+        private static final Ids EMPTY = new Ids();
+
+        private final NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(String id) {
+            if (ids.add(id)) {
+                size.incrementAndGet();
+            }
+        }
+
+        void remove(String id) {
+            if (ids.remove(id)) {
+                size.decrementAndGet();
+            }
+        }
+
+        int size() {
+            return size.get();
+        }
+    }
+
+    private record Keys(DataFlow.State state, String transferType, List<String> labels, boolean pendingNotifications) {
+
+        static Keys of(DataFlow dataFlow) {
+            var labels = dataFlow.getLabels() == null ? List.<String>of() : List.copyOf(dataFlow.getLabels());
+            return new Keys(dataFlow.getState(), dataFlow.getTransferType(), labels, dataFlow.hasPendingNotifications());
+        }
+
+        boolean matches(DataFlowQuery query) {
+            return (query.getState() == null || query.getState() == state)
+                    && (query.getTransferType() == null || query.getTransferType().equals(transferType))
+                    && (query.getLabel() == null || labels.contains(query.getLabel()))
+                    && (!query.isWithPendingNotifications() || pendingNotifications);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+/**
+ * Criteria to select data flows from a {@link DataFlowStore}, every criterion that is set must match.
+ */
+public class DataFlowQuery {
+
+    private DataFlow.State state;
+    private String transferType;
+    private String label;
+    private boolean withPendingNotifications;
+
+    public static DataFlowQuery.Builder newInstance() {
+        return new Builder();
+    }
+
+    public DataFlow.State getState() {
+        return state;
+    }
+
+    public String getTransferType() {
+        return transferType;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isWithPendingNotifications() {
+        return withPendingNotifications;
+    }
+
+    /**
+     * Whether the data flow matches all the criteria that are set.
+     */
+    public boolean matches(DataFlow dataFlow) {
+        return (state == null || state == dataFlow.getState())
+                && (transferType == null || transferType.equals(dataFlow.getTransferType()))
+                && (label == null || (dataFlow.getLabels() != null && dataFlow.getLabels().contains(label)))
+                && (!withPendingNotifications || dataFlow.hasPendingNotifications());
+    }
+
+    public static class Builder {
+        private final DataFlowQuery query = new DataFlowQuery();
+
+        private Builder() {
+
+        }
+
+        public DataFlowQuery build() {
+            return query;
+        }
+
+        public Builder state(DataFlow.State state) {
+            query.state = state;
+            return this;
+        }
+
+        public Builder transferType(String transferType) {
+            query.transferType = transferType;
+            return this;
+        }
+
+        public Builder label(String label) {
+            query.label = label;
+            return this;
+        }
+
+        /**
+         * Select only the data flows that have notifications still to be delivered.
+         */
+        public Builder withPendingNotifications() {
+            query.withPendingNotifications = true;
+            return this;
+        }
+    }
+}
@@ -3,8 +3,108 @@ package org.eclipse.dataplane.port.store;
 import org.eclipse.dataplane.domain.dataflow.DataFlow;
 import org.eclipse.dataplane.domain.Result;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public interface DataFlowStore {
+
+    int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Save a data flow, only if it has been read at the current version: a data flow with version 0 is created and
+     * must not exist yet. This makes the read-transition-save of a data flow a compare-and-set, so that concurrent
+     * transitions of the same flow don't overwrite each other.
+     * On success the version of the data flow is incremented.
+     *
+     * @param dataFlow the data flow.
+     * @return the result, failed with {@link org.eclipse.dataplane.port.exception.DataFlowVersionConflictException}
+     * if the data flow has been modified since it has been read.
+     */
     Result<Void> save(DataFlow dataFlow);
 
+    /**
+     * Save many data flows, every one independently from the others.
+     * By default they are saved one by one, stores that can write many of them at once should override this.
+     *
+     * @param dataFlows the data flows.
+     * @return the result of every save, in the same order.
+     */
+    default List<Result<Void>> saveAll(List<DataFlow> dataFlows) {
+        return dataFlows.stream().map(this::save).toList();
+    }
+
     Result<DataFlow> findById(String flowId);
+
+    /**
+     * Remove a data flow, doing nothing if it does not exist.
+     *
+     * @param flowId the data flow id.
+     * @return the result.
+     */
+    Result<Void> delete(String flowId);
+
+    /**
+     * Find data flows matching the query, ordered by id.
+     *
+     * @param query the query.
+     * @param cursor the cursor returned with the previous page, null to get the first one.
+     * @param limit the maximum number of data flows returned.
+     * @return the page.
+     */
+    Result<Page<DataFlow>> query(DataFlowQuery query, String cursor, int limit);
+
+    /**
+     * Get a non-blocking view of this store.
+     * By default every operation is run on the executor, stores that don't block or that support asynchronous I/O
+     * natively should override this.
+     *
+     * @param executor the executor on which blocking operations are run.
+     * @return the asynchronous store.
+     */
+    default AsyncDataFlowStore async(Executor executor) {
+        return new ExecutorAsyncDataFlowStore(this, executor);
+    }
+
+    /**
+     * Lazily stream all the data flows matching the query, fetching them one page at a time.
+     * A failure fetching a page is thrown as {@link IllegalStateException}.
+     *
+     * @param query the query.
+     * @return the stream of data flows.
+     */
+    default Stream<DataFlow> stream(DataFlowQuery query) {
+        var iterator = new Iterator<DataFlow>() {
+            private Iterator<DataFlow> current = null;
+            private String cursor = null;
+
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (current != null && cursor == null) {
+                        return false;
+                    }
+                    var page = query(query, cursor, DEFAULT_PAGE_SIZE)
+                            .orElseThrow(e -> new IllegalStateException("Cannot query data flows", e));
+                    current = page.items().iterator();
+                    cursor = page.nextCursor();
+                }
+                return true;
+            }
+
+            @Override
+            public DataFlow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 }
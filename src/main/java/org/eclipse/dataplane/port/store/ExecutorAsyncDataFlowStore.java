@@ -0,0 +1,58 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncDataFlowStore} that runs the operations of a blocking {@link DataFlowStore} on an executor.
+ */
+class ExecutorAsyncDataFlowStore implements AsyncDataFlowStore {
+
+    private final DataFlowStore store;
+    private final Executor executor;
+
+    ExecutorAsyncDataFlowStore(DataFlowStore store, Executor executor) {
+        this.store = store;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletionStage<Result<Void>> save(DataFlow dataFlow) {
+        return run(() -> store.save(dataFlow));
+    }
+
+    @Override
+    public CompletionStage<List<Result<Void>>> saveAll(List<DataFlow> dataFlows) {
+        return CompletableFuture.supplyAsync(() -> store.saveAll(dataFlows), executor)
+                .exceptionally(throwable -> {
+                    var failure = throwable.getCause() instanceof Exception cause ? cause : new RuntimeException(throwable);
+                    return dataFlows.stream().map(it -> Result.<Void>failure(failure)).toList();
+                });
+    }
+
+    @Override
+    public CompletionStage<Result<DataFlow>> findById(String flowId) {
+        return run(() -> store.findById(flowId));
+    }
+
+    @Override
+    public CompletionStage<Result<Void>> delete(String flowId) {
+        return run(() -> store.delete(flowId));
+    }
+
+    @Override
+    public CompletionStage<Result<Page<DataFlow>>> query(DataFlowQuery query, String cursor, int limit) {
+        return run(() -> store.query(query, cursor, limit));
+    }
+
+    private <T> CompletionStage<Result<T>> run(Supplier<Result<T>> operation) {
+        return CompletableFuture.supplyAsync(operation, executor)
+                .exceptionally(throwable -> Result.failure(throwable.getCause() instanceof Exception cause ? cause : new RuntimeException(throwable)));
+    }
+}
@@ -0,0 +1,181 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.util.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * {@link DataFlowStore} decorator that removes the data flows in a terminal state according to a
+ * {@link RetentionPolicy}, so that they are still available for status requests for a while without retaining them
+ * forever. Flows with notifications still to be delivered are retained until they have been delivered.
+ * <p>
+ * Every terminated flow gets a timeout on a {@link HashedWheelTimer}, so expiring it is O(1) and no periodic scan of
+ * the store is needed. The expired flows are deleted on an executor, so that a slow delegate doesn't delay the timer.
+ * Terminated flows already in the delegate store when this is created are given a full time-to-live.
+ */
+public class ExpiringDataFlowStore implements DataFlowStore, AutoCloseable {
+
+    private final DataFlowStore delegate;
+    private final RetentionPolicy policy;
+    private final HashedWheelTimer timer;
+    private final ExecutorService ownedExecutor;
+    private final Map<String, Expiration> terminated = new ConcurrentHashMap<>();
+    private final Queue<Expiration> terminatedOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create the store, deleting the expired flows on a dedicated daemon thread.
+     *
+     * @param delegate the store.
+     * @param policy the retention policy.
+     */
+    public ExpiringDataFlowStore(DataFlowStore delegate, RetentionPolicy policy) {
+        this(delegate, policy, null);
+    }
+
+    /**
+     * Create the store.
+     *
+     * @param delegate the store.
+     * @param policy the retention policy.
+     * @param executor the executor on which the expired flows are deleted.
+     */
+    public ExpiringDataFlowStore(DataFlowStore delegate, RetentionPolicy policy, Executor executor) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.ownedExecutor = executor == null ? Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "dataflow-expirer-delete");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        var tick = policy.getTimeToLive().dividedBy(512);
+        this.timer = new HashedWheelTimer("dataflow-expirer", tick.compareTo(Duration.ofMillis(10)) < 0 ? Duration.ofMillis(10) : tick, 512,
+                executor == null ? ownedExecutor : executor);
+
+        Stream.of(DataFlow.State.COMPLETED, DataFlow.State.TERMINATED)
+                .flatMap(state -> delegate.stream(DataFlowQuery.newInstance().state(state).build()))
+                .forEach(this::track);
+    }
+
+    @Override
+    public Result<Void> save(DataFlow dataFlow) {
+        var result = delegate.save(dataFlow);
+        if (result.succeeded()) {
+            track(dataFlow);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Result<Void>> saveAll(List<DataFlow> dataFlows) {
+        var results = delegate.saveAll(dataFlows);
+        for (var i = 0; i < dataFlows.size(); i++) {
+            if (results.get(i).succeeded()) {
+                track(dataFlows.get(i));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Result<DataFlow> findById(String flowId) {
+        return delegate.findById(flowId);
+    }
+
+    @Override
+    public Result<Void> delete(String flowId) {
+        untrack(flowId);
+        return delegate.delete(flowId);
+    }
+
+    @Override
+    public Result<Page<DataFlow>> query(DataFlowQuery query, String cursor, int limit) {
+        return delegate.query(query, cursor, limit);
+    }
+
+    @Override
+    public void close() {
+        timer.close();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    private void track(DataFlow dataFlow) {
+        var flowId = dataFlow.getId();
+        if (!dataFlow.isTerminal() || dataFlow.hasPendingNotifications()) {
+            untrack(flowId);
+            return;
+        }
+
+        var added = new Expiration[1];
+        terminated.computeIfAbsent(flowId, id -> {
+            var expiration = new Expiration(id);
+            expiration.timeout = timer.schedule(() -> expire(expiration), policy.getTimeToLive());
+            added[0] = expiration;
+            return expiration;
+        });
+        if (added[0] != null) {
+            terminatedOrder.add(added[0]);
+            evictExceeding();
+        }
+    }
+
+    private void untrack(String flowId) {
+        var expiration = terminated.remove(flowId);
+        if (expiration != null) {
+            expiration.timeout.cancel();
+        }
+    }
+
+    private void expire(Expiration expiration) {
+        if (terminated.remove(expiration.flowId, expiration)) {
+            delegate.delete(expiration.flowId);
+        }
+        // flows share the same time-to-live, so they expire in insertion order and expired ones pile up at the head
+        Expiration head;
+        while ((head = terminatedOrder.peek()) != null && terminated.get(head.flowId) != head) {
+            terminatedOrder.remove(head);
+        }
+    }
+
+    /**
+     * Remove the oldest terminated flows until the max count is respected, skipping the flows already expired and
+     * the outdated entries of the ones tracked again since.
+     */
+    private void evictExceeding() {
+        while (terminated.size() > policy.getMaxTerminated()) {
+            var oldest = terminatedOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            if (terminated.remove(oldest.flowId, oldest)) {
+                oldest.timeout.cancel();
+                delegate.delete(oldest.flowId);
+            }
+        }
+    }
+
+    /**
+     * A terminated flow being tracked. Every time a flow is tracked again it gets a new one, so the outdated entries
+     * left in the order queue are recognized.
+     */
+    private static class Expiration {
+        private final String flowId;
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        Expiration(String flowId) {
+            this.flowId = flowId;
+        }
+    }
+}
@@ -3,17 +3,43 @@ package org.eclipse.dataplane.port.store;
 import org.eclipse.dataplane.domain.Result;
 import org.eclipse.dataplane.domain.dataflow.DataFlow;
 import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
+/**
+ * In-memory {@link DataFlowStore}, safe to be used concurrently by signaling requests and callback continuations.
+ * Backed by a {@link ConcurrentHashMap}, so updates on different flows don't contend on a common lock.
+ * <p>
+ * Data flows are stored and returned as copies, so a save is the only way to change them, and it succeeds only if the
+ * saved {@link DataFlow} has been read at the current version, otherwise it fails with a
+ * {@link DataFlowVersionConflictException}, as the durable stores do.
+ */
 public class InMemoryDataFlowStore implements DataFlowStore {
 
-    private final Map<String, DataFlow> store = new HashMap<>();
+    private final Map<String, DataFlow> store = new ConcurrentHashMap<>();
+    private final DataFlowIndex index = new DataFlowIndex();
 
     @Override
     public Result<Void> save(DataFlow dataFlow) {
-        store.put(dataFlow.getId(), dataFlow);
+        var expectedVersion = dataFlow.getVersion();
+        var saved = dataFlow.copy();
+        saved.setVersion(expectedVersion + 1);
+        var current = store.compute(dataFlow.getId(), (id, existing) -> {
+            if ((existing == null ? 0 : existing.getVersion()) != expectedVersion) {
+                return existing;
+            }
+            index.update(saved);
+            return saved;
+        });
+        if (current != saved) {
+            return Result.failure(new DataFlowVersionConflictException(
+                    "DataFlow %s has been modified since version %d".formatted(dataFlow.getId(), expectedVersion)));
+        }
+        dataFlow.setVersion(saved.getVersion());
         return Result.success();
     }
 
@@ -23,6 +49,32 @@ public class InMemoryDataFlowStore implements DataFlowStore {
         if (dataFlow == null) {
             return Result.failure(new DataFlowNotFoundException("DataFlow %s not found".formatted(flowId)));
         }
-        return Result.success(dataFlow);
+        return Result.success(dataFlow.copy());
+    }
+
+    /**
+     * Operations never block, so they are run directly on the calling thread.
+     */
+    @Override
+    public AsyncDataFlowStore async(Executor executor) {
+        return new ExecutorAsyncDataFlowStore(this, Runnable::run);
+    }
+
+    @Override
+    public Result<Void> delete(String flowId) {
+        store.computeIfPresent(flowId, (id, existing) -> {
+            index.remove(id);
+            return null;
+        });
+        return Result.success();
+    }
+
+    @Override
+    public Result<Page<DataFlow>> query(DataFlowQuery query, String cursor, int limit) {
+        var ids = index.find(query, cursor, limit);
+        // a flow can change between the index lookup and its read
+        var dataFlows = ids.stream().map(store::get).filter(Objects::nonNull).filter(query::matches).map(DataFlow::copy).toList();
+        var nextCursor = ids.size() < limit ? null : ids.get(ids.size() - 1);
+        return Result.success(new Page<>(dataFlows, nextCursor));
     }
 }
@@ -0,0 +1,544 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import javax.sql.DataSource;
+
+/**
+ * {@link DataFlowStore} backed by a relational database.
+ * <p>
+ * Saves are not executed on the calling thread: they are queued and a single writer coalesces all the saves queued in
+ * the meantime into one JDBC batch, executed in one transaction on a dedicated connection with cached prepared
+ * statements. This way concurrent saves cost a fraction of a database round trip each. With drivers that don't report
+ * the update counts of a batch, the saves are executed again one by one.
+ * <p>
+ * Concurrency is handled optimistically: every row carries a version, and a save succeeds only if the saved
+ * {@link DataFlow} has been read at the current version, otherwise it fails with a {@link DataFlowVersionConflictException}.
+ * <p>
+ * State, transfer type and whether there are pending notifications are stored in indexed columns and labels in a dedicated table, so that queries are answered
+ * by the database indexes, paging on the primary key.
+ */
+public class JdbcDataFlowStore implements DataFlowStore, AutoCloseable {
+
+    private static final PendingSave STOP = new PendingSave(null, null, null);
+
+    private final DataSource dataSource;
+    private final String tableName;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingSave> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private Connection connection;
+    private PreparedStatement update;
+    private PreparedStatement insert;
+    private PreparedStatement deleteLabels;
+    private PreparedStatement insertLabel;
+    private volatile boolean closed;
+
+    public static Builder newInstance() {
+        return new Builder();
+    }
+
+    private JdbcDataFlowStore(DataSource dataSource, String tableName, int maxBatchSize, boolean createTable) {
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.maxBatchSize = maxBatchSize;
+        if (createTable) {
+            createTable();
+        }
+        writer = new Thread(this::writeLoop, "dataflow-jdbc-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public Result<Void> save(DataFlow dataFlow) {
+        return enqueue(dataFlow).join();
+    }
+
+    /**
+     * All the data flows are queued at once, so they are written together in as few batches as possible.
+     */
+    @Override
+    public List<Result<Void>> saveAll(List<DataFlow> dataFlows) {
+        return enqueueAll(dataFlows).join();
+    }
+
+    /**
+     * Saves complete as soon as their batch is written, without blocking any thread meanwhile.
+     * The other operations are run on the executor.
+     */
+    @Override
+    public AsyncDataFlowStore async(Executor executor) {
+        return new ExecutorAsyncDataFlowStore(this, executor) {
+            @Override
+            public CompletionStage<Result<Void>> save(DataFlow dataFlow) {
+                return enqueue(dataFlow);
+            }
+
+            @Override
+            public CompletionStage<List<Result<Void>>> saveAll(List<DataFlow> dataFlows) {
+                return enqueueAll(dataFlows);
+            }
+        };
+    }
+
+    @Override
+    public Result<Page<DataFlow>> query(DataFlowQuery query, String cursor, int limit) {
+        var sql = new StringBuilder("SELECT f.version, f.content FROM %s f WHERE 1 = 1".formatted(tableName));
+        var parameters = new ArrayList<String>();
+        if (cursor != null) {
+            sql.append(" AND f.id > ?");
+            parameters.add(cursor);
+        }
+        if (query.getState() != null) {
+            sql.append(" AND f.state = ?");
+            parameters.add(query.getState().name());
+        }
+        if (query.getTransferType() != null) {
+            sql.append(" AND f.transfer_type = ?");
+            parameters.add(query.getTransferType());
+        }
+        if (query.isWithPendingNotifications()) {
+            sql.append(" AND f.pending_notifications = TRUE");
+        }
+        if (query.getLabel() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM %s_label l WHERE l.flow_id = f.id AND l.label = ?)".formatted(tableName));
+            parameters.add(query.getLabel());
+        }
+        sql.append(" ORDER BY f.id");
+
+        try (var connection = dataSource.getConnection(); var select = connection.prepareStatement(sql.toString())) {
+            for (var i = 0; i < parameters.size(); i++) {
+                select.setString(i + 1, parameters.get(i));
+            }
+            select.setMaxRows(limit);
+            var dataFlows = new ArrayList<DataFlow>();
+            try (var resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    var dataFlow = DataFlowCodec.decode(ByteBuffer.wrap(resultSet.getBytes("content")));
+                    dataFlow.setVersion(resultSet.getLong("version"));
+                    dataFlows.add(dataFlow);
+                }
+            }
+            var nextCursor = dataFlows.size() < limit ? null : dataFlows.get(dataFlows.size() - 1).getId();
+            return Result.success(new Page<>(dataFlows, nextCursor));
+        } catch (SQLException e) {
+            return Result.failure(e);
+        }
+    }
+
+    @Override
+    public Result<DataFlow> findById(String flowId) {
+        try (var connection = dataSource.getConnection();
+             var select = connection.prepareStatement("SELECT version, content FROM %s WHERE id = ?".formatted(tableName))) {
+            select.setString(1, flowId);
+            try (var resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Result.failure(new DataFlowNotFoundException("DataFlow %s not found".formatted(flowId)));
+                }
+                var dataFlow = DataFlowCodec.decode(ByteBuffer.wrap(resultSet.getBytes("content")));
+                dataFlow.setVersion(resultSet.getLong("version"));
+                return Result.success(dataFlow);
+            }
+        } catch (SQLException e) {
+            return Result.failure(e);
+        }
+    }
+
+    @Override
+    public Result<Void> delete(String flowId) {
+        try (var connection = dataSource.getConnection();
+             var delete = connection.prepareStatement("DELETE FROM %s WHERE id = ?".formatted(tableName))) {
+            delete.setString(1, flowId);
+            delete.executeUpdate();
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            return Result.success();
+        } catch (SQLException e) {
+            return Result.failure(e);
+        }
+    }
+
+    /**
+     * Stop the writer once the saves already queued have been written, and release the connection.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.add(STOP);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        var remaining = new ArrayList<PendingSave>();
+        queue.drainTo(remaining);
+        remaining.stream().filter(it -> it != STOP)
+                .forEach(it -> it.future.completeExceptionally(new IllegalStateException("JdbcDataFlowStore has been closed")));
+        closeConnection();
+    }
+
+    private CompletableFuture<Result<Void>> enqueue(DataFlow dataFlow) {
+        if (closed) {
+            return CompletableFuture.completedFuture(Result.failure(new IllegalStateException("JdbcDataFlowStore has been closed")));
+        }
+        var pending = new PendingSave(dataFlow, DataFlowCodec.encode(dataFlow), new CompletableFuture<>());
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            return CompletableFuture.completedFuture(Result.failure(new IllegalStateException("JdbcDataFlowStore has been closed")));
+        }
+        return pending.future.handle((nothing, throwable) -> {
+            if (throwable == null) {
+                return Result.success();
+            }
+            return Result.failure(throwable instanceof Exception exception ? exception : new RuntimeException(throwable));
+        });
+    }
+
+    private CompletableFuture<List<Result<Void>>> enqueueAll(List<DataFlow> dataFlows) {
+        var saves = dataFlows.stream().map(this::enqueue).toList();
+        return CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new))
+                .thenApply(nothing -> saves.stream().map(CompletableFuture::join).toList());
+    }
+
+    private void writeLoop() {
+        var batch = new ArrayList<PendingSave>(maxBatchSize);
+        var stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            stopped = batch.remove(STOP);
+            if (!batch.isEmpty()) {
+                try {
+                    write(batch);
+                } catch (RuntimeException e) {
+                    // e.g. a driver bug: fail the batch and start over on a new connection, the writer must survive
+                    batch.forEach(it -> it.future.completeExceptionally(e));
+                    closeConnection();
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingSave> batch) {
+        try {
+            ensureConnection();
+            var counts = executeBatch(batch);
+            if (counts != null) {
+                connection.commit();
+                for (var i = 0; i < batch.size(); i++) {
+                    complete(batch.get(i), counts[i]);
+                }
+                return;
+            }
+            // the driver didn't report the update counts, without them the stale versions cannot be detected
+            rollback();
+        } catch (SQLException batchFailure) {
+            // one bad item (e.g. a duplicated insert) fails the whole batch
+            rollback();
+        }
+
+        // retry them one by one, to isolate the bad item or to get the update counts
+        for (var pending : batch) {
+            try {
+                ensureConnection();
+                var count = executeOne(pending);
+                connection.commit();
+                complete(pending, count);
+            } catch (SQLException e) {
+                rollback();
+                if (pending.dataFlow.getVersion() == 0 && isIntegrityConstraintViolation(e)) {
+                    // the data flow has been created in the meantime
+                    complete(pending, 0);
+                } else {
+                    pending.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the saves to the update and insert batches and execute them.
+     *
+     * @return the update count of every save, in the same order, or null if the driver reported
+     * {@link Statement#SUCCESS_NO_INFO} for some of them.
+     */
+    private int[] executeBatch(List<PendingSave> batch) throws SQLException {
+        var inserts = new ArrayList<Integer>();
+        var updates = new ArrayList<Integer>();
+        for (var i = 0; i < batch.size(); i++) {
+            var pending = batch.get(i);
+            var statement = bind(pending);
+            statement.addBatch();
+            (statement == insert ? inserts : updates).add(i);
+        }
+
+        var counts = new int[batch.size()];
+        if (!updates.isEmpty()) {
+            var updateCounts = update.executeBatch();
+            for (var i = 0; i < updates.size(); i++) {
+                counts[updates.get(i)] = updateCounts[i];
+            }
+        }
+        if (!inserts.isEmpty()) {
+            var insertCounts = insert.executeBatch();
+            for (var i = 0; i < inserts.size(); i++) {
+                counts[inserts.get(i)] = insertCounts[i];
+            }
+        }
+        for (var count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                return null;
+            }
+        }
+        writeLabels(batch, counts);
+        return counts;
+    }
+
+    /**
+     * Execute a single save, outside of a batch so that the driver reports its update count.
+     *
+     * @return the update count.
+     */
+    private int executeOne(PendingSave pending) throws SQLException {
+        var counts = new int[] { bind(pending).executeUpdate() };
+        writeLabels(List.of(pending), counts);
+        return counts[0];
+    }
+
+    /**
+     * Set the parameters of the insert, if the data flow is new, or of the update.
+     *
+     * @return the statement.
+     */
+    private PreparedStatement bind(PendingSave pending) throws SQLException {
+        var dataFlow = pending.dataFlow;
+        if (dataFlow.getVersion() == 0) {
+            insert.setString(1, dataFlow.getId());
+            insert.setString(2, dataFlow.getState().name());
+            insert.setString(3, dataFlow.getTransferType());
+            insert.setBoolean(4, dataFlow.hasPendingNotifications());
+            insert.setBytes(5, pending.content);
+            return insert;
+        }
+        update.setString(1, dataFlow.getState().name());
+        update.setString(2, dataFlow.getTransferType());
+        update.setBoolean(3, dataFlow.hasPendingNotifications());
+        update.setBytes(4, pending.content);
+        update.setString(5, dataFlow.getId());
+        update.setLong(6, dataFlow.getVersion());
+        return update;
+    }
+
+    /**
+     * Replace the labels of the flows that have been written, in the same transaction.
+     */
+    private void writeLabels(List<PendingSave> batch, int[] counts) throws SQLException {
+        var labels = 0;
+        for (var i = 0; i < batch.size(); i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            var dataFlow = batch.get(i).dataFlow;
+            deleteLabels.setString(1, dataFlow.getId());
+            deleteLabels.addBatch();
+            if (dataFlow.getLabels() != null) {
+                for (var label : Set.copyOf(dataFlow.getLabels())) {
+                    insertLabel.setString(1, dataFlow.getId());
+                    insertLabel.setString(2, label);
+                    insertLabel.addBatch();
+                    labels++;
+                }
+            }
+        }
+        deleteLabels.executeBatch();
+        if (labels > 0) {
+            insertLabel.executeBatch();
+        }
+    }
+
+    private void complete(PendingSave pending, int count) {
+        var dataFlow = pending.dataFlow;
+        if (count == 0) {
+            pending.future.completeExceptionally(new DataFlowVersionConflictException(
+                    "DataFlow %s has been modified since version %d".formatted(dataFlow.getId(), dataFlow.getVersion())));
+            return;
+        }
+        dataFlow.setVersion(dataFlow.getVersion() + 1);
+        pending.future.complete(null);
+    }
+
+    private static boolean isIntegrityConstraintViolation(SQLException exception) {
+        return exception.getSQLState() != null && exception.getSQLState().startsWith("23");
+    }
+
+    /**
+     * Open the connection and prepare the statements, if needed. The connection is kept only once all the statements
+     * have been prepared, so that it's never used half initialized.
+     */
+    private void ensureConnection() throws SQLException {
+        if (connection != null && !connection.isClosed()) {
+            return;
+        }
+        closeConnection();
+        var opened = dataSource.getConnection();
+        try {
+            opened.setAutoCommit(false);
+            var preparedUpdate = opened.prepareStatement("UPDATE %s SET state = ?, transfer_type = ?, pending_notifications = ?, content = ?, version = version + 1 WHERE id = ? AND version = ?".formatted(tableName));
+            var preparedInsert = opened.prepareStatement("INSERT INTO %s (id, version, state, transfer_type, pending_notifications, content) VALUES (?, 1, ?, ?, ?, ?)".formatted(tableName));
+            var preparedDeleteLabels = opened.prepareStatement("DELETE FROM %s_label WHERE flow_id = ?".formatted(tableName));
+            var preparedInsertLabel = opened.prepareStatement("INSERT INTO %s_label (flow_id, label) VALUES (?, ?)".formatted(tableName));
+            update = preparedUpdate;
+            insert = preparedInsert;
+            deleteLabels = preparedDeleteLabels;
+            insertLabel = preparedInsertLabel;
+            connection = opened;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                opened.close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    private void rollback() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            update.clearBatch();
+            insert.clearBatch();
+            deleteLabels.clearBatch();
+            insertLabel.clearBatch();
+            connection.rollback();
+        } catch (SQLException | RuntimeException e) {
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException ignored) {
+            // the connection is not going to be used anymore
+        } finally {
+            connection = null;
+            update = null;
+            insert = null;
+            deleteLabels = null;
+            insertLabel = null;
+        }
+    }
+
+    private void createTable() {
+        try (var connection = dataSource.getConnection(); var statement = connection.createStatement()) {
+            if (tableExists(statement)) {
+                return;
+            }
+            statement.execute("""
+                    CREATE TABLE %s (
+                        id VARCHAR(255) NOT NULL PRIMARY KEY,
+                        version BIGINT NOT NULL,
+                        state VARCHAR(32) NOT NULL,
+                        transfer_type VARCHAR(255),
+                        pending_notifications BOOLEAN NOT NULL,
+                        content BLOB NOT NULL
+                    )""".formatted(tableName));
+            statement.execute("""
+                    CREATE TABLE %1$s_label (
+                        flow_id VARCHAR(255) NOT NULL REFERENCES %1$s (id) ON DELETE CASCADE,
+                        label VARCHAR(255) NOT NULL,
+                        PRIMARY KEY (label, flow_id)
+                    )""".formatted(tableName));
+            statement.execute("CREATE INDEX %1$s_state_idx ON %1$s (state, id)".formatted(tableName));
+            statement.execute("CREATE INDEX %1$s_transfer_type_idx ON %1$s (transfer_type, id)".formatted(tableName));
+            statement.execute("CREATE INDEX %1$s_pending_notifications_idx ON %1$s (pending_notifications, id)".formatted(tableName));
+            statement.execute("CREATE INDEX %1$s_label_flow_idx ON %1$s_label (flow_id)".formatted(tableName));
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot create table " + tableName, e);
+        }
+    }
+
+    private boolean tableExists(Statement statement) {
+        try {
+            statement.executeQuery("SELECT id FROM %s WHERE 1 = 0".formatted(tableName)).close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private record PendingSave(DataFlow dataFlow, byte[] content, CompletableFuture<Void> future) {
+    }
+
+    public static class Builder {
+        private DataSource dataSource;
+        private String tableName = "data_flow";
+        private int maxBatchSize = 500;
+        private boolean createTable = false;
+
+        private Builder() {
+        }
+
+        public JdbcDataFlowStore build() {
+            Objects.requireNonNull(dataSource, "dataSource");
+            return new JdbcDataFlowStore(dataSource, tableName, maxBatchSize, createTable);
+        }
+
+        public Builder dataSource(DataSource dataSource) {
+            this.dataSource = dataSource;
+            return this;
+        }
+
+        public Builder tableName(String tableName) {
+            this.tableName = tableName;
+            return this;
+        }
+
+        /**
+         * Maximum number of saves written in a single batch.
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Create the table on build if it does not exist yet.
+         */
+        public Builder createTable(boolean createTable) {
+            this.createTable = createTable;
+            return this;
+        }
+    }
+}
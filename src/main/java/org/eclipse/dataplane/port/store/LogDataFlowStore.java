@@ -0,0 +1,650 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Durable {@link DataFlowStore} that appends every saved {@link DataFlow} to memory-mapped segment files.
+ * <p>
+ * The latest record of every flow is located through an in-memory index that is rebuilt on startup by scanning the
+ * segments in order, reading only the record headers and flow ids, then the secondary indexes used by queries are
+ * built decoding only the latest record of every flow. Records are protected by a checksum, so a torn write at the end
+ * of the log after a crash is detected and discarded.
+ * <p>
+ * {@link #save(DataFlow)} returns only once the record has been flushed to disk: concurrent saves are group-committed,
+ * meaning that a single flush covers all the records appended while the previous flush was in progress.
+ * Deletions are appended as tombstone records.
+ * <p>
+ * A save succeeds only if the saved {@link DataFlow} has been read at the current version, that is kept in the index
+ * so checking it costs a lookup, otherwise it fails with a {@link DataFlowVersionConflictException}.
+ * Sealed segments in which most of the records have been superseded are compacted in background by re-appending their
+ * live records to the log and deleting them. Tombstones are carried over until they reach the oldest segment, as only
+ * then there's no older record left that they could hide.
+ */
+public class LogDataFlowStore implements DataFlowStore, AutoCloseable {
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    /**
+     * Record header: payload length (int), payload checksum (int), record type (byte).
+     */
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+    private final DataFlowIndex secondaryIndex = new DataFlowIndex();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncRequested = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private final List<Segment> sealedToSync = new ArrayList<>();
+    private final Thread flusher;
+    private final ScheduledExecutorService compactor;
+    private volatile Segment active;
+    private long appendedBytes;
+    private long syncedBytes;
+    private boolean syncPending;
+    private volatile boolean closed;
+
+    public static Builder newInstance() {
+        return new Builder();
+    }
+
+    private LogDataFlowStore(Path directory, int segmentSize, double compactionThreshold, Duration compactionInterval) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        flusher = new Thread(this::flushLoop, "dataflow-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "dataflow-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = compactionInterval.toMillis();
+        compactor.scheduleWithFixedDelay(this::compact, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Result<Void> save(DataFlow dataFlow) {
+        if (closed) {
+            return closedFailure();
+        }
+        var payload = encodeNextVersion(dataFlow);
+        if (payload.length + HEADER_SIZE > segmentSize) {
+            dataFlow.setVersion(dataFlow.getVersion() - 1);
+            return Result.failure(new IllegalArgumentException("DataFlow %s record of %d bytes exceeds segment size %d"
+                    .formatted(dataFlow.getId(), payload.length, segmentSize)));
+        }
+
+        long position;
+        appendLock.lock();
+        try {
+            if (closed) {
+                dataFlow.setVersion(dataFlow.getVersion() - 1);
+                return closedFailure();
+            }
+            if (currentVersion(dataFlow.getId()) != dataFlow.getVersion() - 1) {
+                dataFlow.setVersion(dataFlow.getVersion() - 1);
+                return conflict(dataFlow);
+            }
+            position = append(dataFlow.getId(), PUT, ByteBuffer.wrap(payload), checksum(payload), dataFlow.getVersion());
+            secondaryIndex.update(dataFlow);
+        } catch (IOException e) {
+            dataFlow.setVersion(dataFlow.getVersion() - 1);
+            return Result.failure(e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        return awaitSynced(position);
+    }
+
+    /**
+     * All the records are appended at once, and then synced together.
+     */
+    @Override
+    public List<Result<Void>> saveAll(List<DataFlow> dataFlows) {
+        if (closed) {
+            return dataFlows.stream().map(it -> LogDataFlowStore.<Void>closedFailure()).toList();
+        }
+        var results = new ArrayList<Result<Void>>(dataFlows.size());
+        var payloads = dataFlows.stream().map(this::encodeNextVersion).toList();
+        var position = -1L;
+        appendLock.lock();
+        try {
+            if (closed) {
+                dataFlows.forEach(dataFlow -> dataFlow.setVersion(dataFlow.getVersion() - 1));
+                return dataFlows.stream().map(it -> LogDataFlowStore.<Void>closedFailure()).toList();
+            }
+            for (var i = 0; i < dataFlows.size(); i++) {
+                var dataFlow = dataFlows.get(i);
+                var payload = payloads.get(i);
+                if (payload.length + HEADER_SIZE > segmentSize) {
+                    dataFlow.setVersion(dataFlow.getVersion() - 1);
+                    results.add(Result.failure(new IllegalArgumentException("DataFlow %s record of %d bytes exceeds segment size %d"
+                            .formatted(dataFlow.getId(), payload.length, segmentSize))));
+                    continue;
+                }
+                if (currentVersion(dataFlow.getId()) != dataFlow.getVersion() - 1) {
+                    dataFlow.setVersion(dataFlow.getVersion() - 1);
+                    results.add(conflict(dataFlow));
+                    continue;
+                }
+                try {
+                    position = append(dataFlow.getId(), PUT, ByteBuffer.wrap(payload), checksum(payload), dataFlow.getVersion());
+                    secondaryIndex.update(dataFlow);
+                    results.add(null);
+                } catch (IOException e) {
+                    dataFlow.setVersion(dataFlow.getVersion() - 1);
+                    results.add(Result.failure(e));
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+
+        var synced = position < 0 ? Result.success() : awaitSynced(position);
+        results.replaceAll(result -> result == null ? synced : result);
+        return results;
+    }
+
+    @Override
+    public Result<DataFlow> findById(String flowId) {
+        var location = index.get(flowId);
+        if (location == null) {
+            return Result.failure(new DataFlowNotFoundException("DataFlow %s not found".formatted(flowId)));
+        }
+        return Result.attempt(() -> DataFlowCodec.decode(location.payload()));
+    }
+
+    @Override
+    public Result<Void> delete(String flowId) {
+        long position;
+        appendLock.lock();
+        try {
+            if (closed) {
+                return closedFailure();
+            }
+            if (!index.containsKey(flowId)) {
+                return Result.success();
+            }
+            var payload = DataFlowCodec.encodeId(flowId);
+            position = append(flowId, DELETE, ByteBuffer.wrap(payload), checksum(payload), 0);
+            secondaryIndex.remove(flowId);
+        } catch (IOException e) {
+            return Result.failure(e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        return awaitSynced(position);
+    }
+
+    @Override
+    public Result<Page<DataFlow>> query(DataFlowQuery query, String cursor, int limit) {
+        return Result.attempt(() -> {
+            var ids = secondaryIndex.find(query, cursor, limit);
+            var dataFlows = ids.stream().map(index::get).filter(Objects::nonNull)
+                    .map(location -> DataFlowCodec.decode(location.payload()))
+                    .toList();
+            var nextCursor = ids.size() < limit ? null : ids.get(ids.size() - 1);
+            return new Page<>(dataFlows, nextCursor);
+        });
+    }
+
+    /**
+     * Flush pending records and release the segment files.
+     */
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+
+        compactor.shutdownNow();
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        for (var segment : segments) {
+            segment.close();
+        }
+    }
+
+    /**
+     * Append a record to the active segment, rolling to a new one if it doesn't fit, and update the index.
+     * Must be called holding the append lock.
+     *
+     * @param version the version of the data flow in the record, 0 for tombstones.
+     * @return the logical position of the end of the record, to be used to wait for it to be flushed.
+     */
+    private long append(String flowId, byte type, ByteBuffer payload, int checksum, long version) throws IOException {
+        var size = HEADER_SIZE + payload.remaining();
+        if (active.writePosition + size > segmentSize) {
+            roll();
+        }
+
+        var offset = active.writePosition;
+        var buffer = active.buffer;
+        buffer.put(offset + HEADER_SIZE, payload, payload.position(), payload.remaining());
+        buffer.putInt(offset + Integer.BYTES, checksum);
+        buffer.put(offset + Integer.BYTES + Integer.BYTES, type);
+        buffer.putInt(offset, payload.remaining());
+
+        active.writePosition += size;
+        active.records++;
+        var previous = index(active, flowId, type, offset, payload.remaining(), version);
+        if (previous != null) {
+            previous.segment.live.decrementAndGet();
+        }
+
+        appendedBytes += size;
+        return appendedBytes;
+    }
+
+    private void roll() throws IOException {
+        var sealed = active;
+        active = Segment.create(segmentFile(sealed.id + 1), sealed.id + 1, segmentSize);
+        segments.add(active);
+        syncLock.lock();
+        try {
+            sealedToSync.add(sealed);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private Result<Void> awaitSynced(long position) {
+        syncLock.lock();
+        try {
+            while (syncedBytes < position) {
+                if (closed) {
+                    return closedFailure();
+                }
+                syncPending = true;
+                syncRequested.signal();
+                synced.await();
+            }
+            return Result.success();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.failure(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            syncLock.lock();
+            try {
+                while (!syncPending && !closed) {
+                    syncRequested.await();
+                }
+                syncPending = false;
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                syncLock.unlock();
+            }
+            sync();
+        }
+    }
+
+    /**
+     * Force to disk everything that has been appended so far and wake up the savers waiting for it.
+     */
+    private void sync() {
+        long target;
+        List<Segment> toSync;
+        appendLock.lock();
+        try {
+            target = appendedBytes;
+            syncLock.lock();
+            try {
+                toSync = new ArrayList<>(sealedToSync);
+                sealedToSync.clear();
+            } finally {
+                syncLock.unlock();
+            }
+            toSync.add(active);
+        } finally {
+            appendLock.unlock();
+        }
+
+        toSync.forEach(Segment::force);
+
+        syncLock.lock();
+        try {
+            syncedBytes = Math.max(syncedBytes, target);
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the live records of the sealed segments that contain mostly superseded records, then delete them.
+     */
+    private void compact() {
+        for (var segment : segments) {
+            if (closed) {
+                return;
+            }
+            // tombstones would be carried over anyway, unless the segment is the oldest one
+            var retained = segment.live.get() + (segments.get(0) == segment ? 0 : segment.tombstones);
+            if (segment == active || segment.records == 0 || (double) retained / segment.records >= compactionThreshold) {
+                continue;
+            }
+            try {
+                compact(segment);
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        var oldest = segments.get(0) == segment;
+        long position = 0;
+        var offset = 0;
+        while (offset < segment.writePosition) {
+            var length = segment.buffer.getInt(offset);
+            var checksum = segment.buffer.getInt(offset + Integer.BYTES);
+            var type = segment.buffer.get(offset + Integer.BYTES + Integer.BYTES);
+            var payload = segment.buffer.slice(offset + HEADER_SIZE, length);
+            var flowId = DataFlowCodec.decodeId(payload.duplicate());
+
+            appendLock.lock();
+            try {
+                ensureOpen();
+                var current = index.get(flowId);
+                var liveRecord = type == PUT && current != null && current.segment == segment && current.offset == offset;
+                var neededTombstone = type == DELETE && !oldest && current == null;
+                if (liveRecord || neededTombstone) {
+                    position = append(flowId, type, payload, checksum, liveRecord ? current.version() : 0);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+            offset += HEADER_SIZE + length;
+        }
+
+        if (position > 0 && awaitSynced(position).failed()) {
+            return;
+        }
+        segments.remove(segment);
+        segment.close();
+        Files.deleteIfExists(segment.file);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (var list = Files.list(directory)) {
+            files = list.filter(it -> it.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparing(it -> it.getFileName().toString()))
+                    .toList();
+        }
+
+        for (var file : files) {
+            var name = file.getFileName().toString();
+            var id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            var segment = Segment.open(file, id);
+            replay(segment);
+            segments.add(segment);
+        }
+
+        // versions are not in the record headers, they are read while decoding the latest records
+        index.replaceAll((flowId, location) -> {
+            var dataFlow = DataFlowCodec.decode(location.payload());
+            secondaryIndex.update(dataFlow);
+            return new Location(location.segment(), location.offset(), location.length(), dataFlow.getVersion());
+        });
+
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(segmentFile(0), 0, segmentSize));
+        }
+        active = segments.get(segments.size() - 1);
+        if (active.buffer.capacity() < segmentSize) {
+            var next = active.id + 1;
+            active = Segment.create(segmentFile(next), next, segmentSize);
+            segments.add(active);
+        }
+    }
+
+    /**
+     * Scan a segment rebuilding the index, stopping at the first empty or corrupted record.
+     * Anything after a corrupted record is the result of an interrupted write, so it gets cleared.
+     */
+    private void replay(Segment segment) {
+        var buffer = segment.buffer;
+        var offset = 0;
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            var length = buffer.getInt(offset);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || offset + HEADER_SIZE + length > buffer.capacity()) {
+                segment.clearFrom(offset);
+                break;
+            }
+            var payload = buffer.slice(offset + HEADER_SIZE, length);
+            if (checksum(payload.duplicate()) != buffer.getInt(offset + Integer.BYTES)) {
+                segment.clearFrom(offset);
+                break;
+            }
+
+            var flowId = DataFlowCodec.decodeId(payload);
+            var type = buffer.get(offset + Integer.BYTES + Integer.BYTES);
+            segment.records++;
+            var previous = index(segment, flowId, type, offset, length, 0);
+            if (previous != null) {
+                previous.segment.live.decrementAndGet();
+            }
+            offset += HEADER_SIZE + length;
+        }
+        segment.writePosition = offset;
+    }
+
+    /**
+     * Point the index at a put record, or remove the flow from it for a tombstone.
+     *
+     * @return the location of the superseded record, if any.
+     */
+    private Location index(Segment segment, String flowId, byte type, int offset, int length, long version) {
+        if (type == DELETE) {
+            segment.tombstones++;
+            return index.remove(flowId);
+        }
+        segment.live.incrementAndGet();
+        return index.put(flowId, new Location(segment, offset, length, version));
+    }
+
+    private Path segmentFile(long id) {
+        return directory.resolve("%020d%s".formatted(id, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Serialize the data flow with its version incremented, as it's going to be after the save.
+     */
+    private byte[] encodeNextVersion(DataFlow dataFlow) {
+        dataFlow.setVersion(dataFlow.getVersion() + 1);
+        return DataFlowCodec.encode(dataFlow);
+    }
+
+    /**
+     * Version of the latest record of the data flow, 0 if it doesn't exist. Must be called holding the append lock.
+     */
+    private long currentVersion(String flowId) {
+        var location = index.get(flowId);
+        return location == null ? 0 : location.version();
+    }
+
+    private static Result<Void> conflict(DataFlow dataFlow) {
+        return Result.failure(new DataFlowVersionConflictException(
+                "DataFlow %s has been modified since version %d".formatted(dataFlow.getId(), dataFlow.getVersion())));
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("LogDataFlowStore has been closed");
+        }
+    }
+
+    private static <T> Result<T> closedFailure() {
+        return Result.failure(new IllegalStateException("LogDataFlowStore has been closed"));
+    }
+
+    private static int checksum(byte[] payload) {
+        return checksum(ByteBuffer.wrap(payload));
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        var crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Location(Segment segment, int offset, int length, long version) {
+        ByteBuffer payload() {
+            return segment.buffer.slice(offset + HEADER_SIZE, length);
+        }
+    }
+
+    private static class Segment {
+        private final long id;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger live = new AtomicInteger();
+        private volatile int writePosition;
+        private volatile int records;
+        private volatile int tombstones;
+
+        private Segment(long id, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path file, long id, int size) throws IOException {
+            var channel = FileChannel.open(file, CREATE, READ, WRITE);
+            return new Segment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment open(Path file, long id) throws IOException {
+            var channel = FileChannel.open(file, READ, WRITE);
+            return new Segment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+        }
+
+        void clearFrom(int offset) {
+            for (var i = offset; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // the mapping stays valid until it gets garbage collected
+            }
+        }
+    }
+
+    public static class Builder {
+        private Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private double compactionThreshold = 0.5;
+        private Duration compactionInterval = Duration.ofMinutes(1);
+
+        private Builder() {
+        }
+
+        public LogDataFlowStore build() {
+            Objects.requireNonNull(directory, "directory");
+            return new LogDataFlowStore(directory, segmentSize, compactionThreshold, compactionInterval);
+        }
+
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public Builder segmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Sealed segments with a ratio of live records lower than this get compacted.
+         */
+        public Builder compactionThreshold(double compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        public Builder compactionInterval(Duration compactionInterval) {
+            this.compactionInterval = compactionInterval;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.eclipse.dataplane.port.store;
+
+import java.util.List;
+
+/**
+ * A page of query results, ordered by id.
+ *
+ * @param items the results.
+ * @param nextCursor cursor to be passed to get the next page, null if this is the last one.
+ */
+public record Page<T>(
+        List<T> items,
+        String nextCursor
+) {
+}
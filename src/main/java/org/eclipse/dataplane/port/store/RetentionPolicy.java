@@ -0,0 +1,52 @@
+package org.eclipse.dataplane.port.store;
+
+import java.time.Duration;
+
+/**
+ * Defines for how long data flows in a terminal state are kept in the store.
+ */
+public class RetentionPolicy {
+
+    private Duration timeToLive = Duration.ofHours(1);
+    private int maxTerminated = Integer.MAX_VALUE;
+
+    public static RetentionPolicy.Builder newInstance() {
+        return new Builder();
+    }
+
+    /**
+     * Time after which a data flow that reached a terminal state is removed.
+     */
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Maximum number of data flows in terminal state retained, when exceeded the oldest ones are removed.
+     */
+    public int getMaxTerminated() {
+        return maxTerminated;
+    }
+
+    public static class Builder {
+        private final RetentionPolicy policy = new RetentionPolicy();
+
+        private Builder() {
+
+        }
+
+        public RetentionPolicy build() {
+            return policy;
+        }
+
+        public Builder timeToLive(Duration timeToLive) {
+            policy.timeToLive = timeToLive;
+            return this;
+        }
+
+        public Builder maxTerminated(int maxTerminated) {
+            policy.maxTerminated = maxTerminated;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.eclipse.dataplane.util;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timer that keeps timeouts in a wheel of buckets, each one covering a tick of time.
+ * <p>
+ * Scheduling and cancelling a timeout are O(1), and on every tick the worker thread only visits the timeouts hashed to
+ * the current bucket, so it can cope with millions of pending timeouts. The price is precision: a timeout expires
+ * within one tick after its deadline.
+ * <p>
+ * Expired tasks are run on the given executor, that defaults to the worker thread itself, so they should be short.
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startTime;
+    private long tick;
+    private volatile boolean closed;
+
+    public HashedWheelTimer(String name, Duration tickDuration, int ticksPerWheel) {
+        this(name, tickDuration, ticksPerWheel, Runnable::run);
+    }
+
+    /**
+     * Create and start a timer.
+     *
+     * @param name the name of the worker thread.
+     * @param tickDuration the duration of a tick.
+     * @param ticksPerWheel the number of buckets in the wheel, rounded up to a power of two.
+     * @param executor the executor on which the expired tasks are run.
+     */
+    public HashedWheelTimer(String name, Duration tickDuration, int ticksPerWheel, Executor executor) {
+        this.tickNanos = tickDuration.toNanos();
+        var size = Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (var i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedule a task to be run once the delay has elapsed.
+     *
+     * @param task the task.
+     * @param delay the delay.
+     * @return the timeout, that can be cancelled.
+     */
+    public Timeout schedule(Runnable task, Duration delay) {
+        if (closed) {
+            throw new IllegalStateException("Timer has been closed");
+        }
+        var timeout = new Timeout(this, task, System.nanoTime() - startTime + delay.toNanos());
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the worker thread, pending timeouts won't expire.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            var deadline = tickNanos * (tick + 1);
+            var sleepNanos = deadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) (tick & mask)].expire(executor);
+            tick++;
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            var ticks = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    public static class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // the following fields are only accessed by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timeout.
+         *
+         * @return true if the timeout was pending, false if it already expired or has already been cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void run() {
+            try {
+                task.run();
+            } catch (RuntimeException ignored) {
+                // a failing task must not stop the timer
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, so that removal is O(1).
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(Executor executor) {
+            var timeout = head;
+            while (timeout != null) {
+                var next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                        executor.execute(timeout::run);
+                    }
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+    }
+}
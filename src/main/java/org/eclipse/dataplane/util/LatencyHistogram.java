@@ -0,0 +1,79 @@
+package org.eclipse.dataplane.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies, from which percentiles can be read with a bounded relative error.
+ * <p>
+ * Every power of two is split in a fixed number of linear buckets, so the memory is constant and recording is a
+ * lock-free increment, while a percentile is within 12.5% of the actual value.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        var value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public Duration max() {
+        return Duration.ofNanos(max.get());
+    }
+
+    /**
+     * Get the value below which the given fraction of the recorded latencies fall.
+     *
+     * @param fraction the fraction, e.g. 0.99 for the 99th percentile.
+     * @return the percentile, zero if nothing has been recorded.
+     */
+    public Duration percentile(double fraction) {
+        var total = count.sum();
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+        var rank = Math.max(1, (long) Math.ceil(fraction * total));
+        var cumulative = 0L;
+        for (var i = 0; i < counts.length(); i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= rank) {
+                return Duration.ofNanos(Math.min(upperBound(i), max.get()));
+            }
+        }
+        return max();
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        var exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        var shift = exponent - SUB_BUCKET_BITS;
+        var subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        var shift = index / SUB_BUCKETS - 1;
+        var subBucket = index % SUB_BUCKETS;
+        var bound = ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound;
+    }
+}
@@ -0,0 +1,119 @@
+package org.eclipse.dataplane.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs the operations submitted for the same key one at a time, in submission order, like an actor processing its
+ * mailbox. Operations for different keys run concurrently on the executor.
+ * <p>
+ * An operation is over when the stage it returns completes, so asynchronous operations are serialized as well, without
+ * holding a thread while they are pending. Only the keys with pending operations take memory: the mailbox of a key is
+ * just the stage of its last operation, removed once it completes.
+ * <p>
+ * Submitting an operation for a key from the thread running an operation for the same key runs it right away, as part
+ * of the current one, so that e.g. a handler can notify about its own data flow without deadlocking.
+ */
+public class Mailboxes {
+
+    private final Executor executor;
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> running = new ThreadLocal<>();
+
+    public Mailboxes(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Run the operation once the ones previously submitted for the same key are over.
+     *
+     * @param key the key.
+     * @param operation the operation.
+     * @return a stage that completes as the one returned by the operation.
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<? extends CompletionStage<T>> operation) {
+        if (key.equals(running.get())) {
+            return start(operation).toCompletableFuture();
+        }
+
+        var result = new CompletableFuture<T>();
+        var current = new CompletableFuture<Void>();
+        var previous = tails.put(key, current);
+
+        Runnable run = () -> run(key, operation).whenComplete((value, throwable) -> {
+            tails.remove(key, current);
+            current.complete(null);
+            if (throwable == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(throwable);
+            }
+        });
+
+        if (previous == null) {
+            execute(run, result, current, key);
+        } else {
+            previous.whenComplete((nothing, throwable) -> execute(run, result, current, key));
+        }
+        return result;
+    }
+
+    /**
+     * Executor that continues an operation for the key after an asynchronous step, e.g. a store lookup that completed
+     * on a store thread. Tasks run on the executor of the mailboxes as part of the operation, so that the operations
+     * submitted from them for the same key run right away instead of waiting for the current one.
+     *
+     * @param key the key of the running operation.
+     * @return the executor.
+     */
+    public Executor continuation(String key) {
+        return task -> executor.execute(() -> {
+            var outer = running.get();
+            running.set(key);
+            try {
+                task.run();
+            } finally {
+                running.set(outer);
+            }
+        });
+    }
+
+    /**
+     * Number of keys with pending operations.
+     */
+    public int size() {
+        return tails.size();
+    }
+
+    private void execute(Runnable run, CompletableFuture<?> result, CompletableFuture<Void> current, String key) {
+        try {
+            executor.execute(run);
+        } catch (RuntimeException exception) {
+            tails.remove(key, current);
+            current.complete(null);
+            result.completeExceptionally(exception);
+        }
+    }
+
+    private <T> CompletionStage<T> run(String key, Supplier<? extends CompletionStage<T>> operation) {
+        var outer = running.get();
+        running.set(key);
+        try {
+            return start(operation);
+        } finally {
+            running.set(outer);
+        }
+    }
+
+    private static <T> CompletionStage<T> start(Supplier<? extends CompletionStage<T>> operation) {
+        try {
+            return operation.get();
+        } catch (RuntimeException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.logic.AdmissionPolicy;
+import org.eclipse.dataplane.port.exception.AdmissionRejectedException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.TRANSFER_TYPE;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+
+class DataplaneAdmissionTest {
+
+    @Test
+    void shouldRejectNewFlows_whenMaxActiveFlowsIsReached() {
+        var dataplane = Dataplane.newInstance()
+                .admissionPolicy(AdmissionPolicy.newInstance().maxActiveFlows(1).build())
+                .onPrepare(Result::success).onTerminate(Result::success)
+                .build();
+
+        assertThat(dataplane.prepare(prepareMessageOfType("first", TRANSFER_TYPE)).succeeded()).isTrue();
+        var rejected = dataplane.prepare(prepareMessageOfType("second", TRANSFER_TYPE));
+        dataplane.terminate("first", new DataFlowTerminateMessage("reason"));
+        var admitted = dataplane.prepare(prepareMessageOfType("second", TRANSFER_TYPE));
+
+        assertThatThrownBy(rejected::orElseThrow).isInstanceOfSatisfying(AdmissionRejectedException.class,
+                exception -> assertThat(exception.getLimit()).isEqualTo(AdmissionRejectedException.Limit.ACTIVE_FLOWS));
+        assertThat(admitted.succeeded()).isTrue();
+    }
+
+    @Test
+    void shouldRejectNewFlows_whenTransferTypeQuotaIsReached() {
+        var dataplane = Dataplane.newInstance()
+                .admissionPolicy(AdmissionPolicy.newInstance().maxActiveFlows("Limited-PUSH", 1).build())
+                .onPrepare(Result::success)
+                .build();
+
+        dataplane.prepare(prepareMessageOfType("first", "Limited-PUSH"));
+        var rejected = dataplane.prepare(prepareMessageOfType("second", "Limited-PUSH"));
+        var otherType = dataplane.prepare(prepareMessageOfType("third", TRANSFER_TYPE));
+
+        assertThatThrownBy(rejected::orElseThrow).isInstanceOfSatisfying(AdmissionRejectedException.class,
+                exception -> assertThat(exception.getLimit()).isEqualTo(AdmissionRejectedException.Limit.ACTIVE_FLOWS_PER_TRANSFER_TYPE));
+        assertThat(otherType.succeeded()).isTrue();
+    }
+
+    @Test
+    void shouldNotCountFlow_whenHandlerFails() {
+        var dataplane = Dataplane.newInstance()
+                .admissionPolicy(AdmissionPolicy.newInstance().maxActiveFlows(1).build())
+                .onPrepare(dataFlow -> dataFlow.getId().equals("failing")
+                        ? Result.failure(new IllegalStateException("cannot prepare"))
+                        : Result.success(dataFlow))
+                .build();
+
+        dataplane.prepare(prepareMessageOfType("failing", TRANSFER_TYPE));
+
+        assertThat(dataplane.prepare(prepareMessageOfType("dataFlowId", TRANSFER_TYPE)).succeeded()).isTrue();
+    }
+
+    @Test
+    void shouldRejectMessage_whenMaxInFlightHandlersIsReached() {
+        var release = new CompletableFuture<Void>();
+        var dataplane = Dataplane.newInstance()
+                .admissionPolicy(AdmissionPolicy.newInstance().maxInFlightHandlers(1).build())
+                .onPrepare(dataFlow -> {
+                    release.join();
+                    return Result.success(dataFlow);
+                })
+                .build();
+
+        var first = CompletableFuture.supplyAsync(() -> dataplane.prepare(prepareMessageOfType("first", TRANSFER_TYPE)));
+        await().untilAsserted(() -> assertThatThrownBy(dataplane.prepare(prepareMessageOfType("second", TRANSFER_TYPE))::orElseThrow)
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        exception -> assertThat(exception.getLimit()).isEqualTo(AdmissionRejectedException.Limit.IN_FLIGHT_HANDLERS)));
+        release.complete(null);
+
+        assertThat(first).succeedsWithin(5, TimeUnit.SECONDS).satisfies(result -> assertThat(result.succeeded()).isTrue());
+    }
+
+    private DataFlowPrepareMessage prepareMessageOfType(String dataFlowId, String transferType) {
+        return prepareMessage(UUID.randomUUID().toString(), dataFlowId, "http://any", transferType);
+    }
+}
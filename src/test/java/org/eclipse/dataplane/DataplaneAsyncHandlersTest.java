@@ -0,0 +1,90 @@
+package org.eclipse.dataplane;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.controlPlane;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.TERMINATED;
+
+class DataplaneAsyncHandlersTest {
+
+    private final WireMockServer controlPlane = controlPlane();
+
+    @BeforeEach
+    void setUp() {
+        controlPlane.start();
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        controlPlane.stop();
+    }
+
+    @Test
+    void shouldRespondPreparing_andNotifyPrepared_whenHandlerCompletes() {
+        var handler = new CompletableFuture<Void>();
+        var dataplane = Dataplane.newInstance()
+                .onPrepareAsync(dataFlow -> handler.thenApply(it -> Result.success(dataFlow)))
+                .build();
+
+        var response = dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+        assertThat(response.getContent().state()).isEqualTo(DataFlow.State.PREPARING.name());
+        assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(DataFlow.State.PREPARING.name());
+
+        handler.complete(null);
+
+        await().untilAsserted(() -> {
+            controlPlane.verify(postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/prepared"))
+                    .withRequestBody(equalToJson("{\"state\": \"PREPARED\"}", true, true)));
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(DataFlow.State.PREPARED.name());
+        });
+    }
+
+    @Test
+    void shouldTerminate_andNotifyErrored_whenHandlerFails() {
+        var handler = new CompletableFuture<Result<DataFlow>>();
+        var dataplane = Dataplane.newInstance().onPrepareAsync(dataFlow -> handler).build();
+
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+        handler.completeExceptionally(new IllegalStateException("cannot create bucket"));
+
+        await().untilAsserted(() -> {
+            controlPlane.verify(postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/errored"))
+                    .withRequestBody(equalToJson("{\"reason\": \"cannot create bucket\"}")));
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+        });
+    }
+
+    @Test
+    void shouldRespondOnce_whenTerminateHandlerCompletes() {
+        var dataplane = Dataplane.newInstance()
+                .onPrepare(Result::success)
+                .onTerminateAsync(dataFlow -> CompletableFuture.supplyAsync(() -> Result.success(dataFlow)))
+                .build();
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+        var result = dataplane.terminateAsync("dataFlowId", new DataFlowTerminateMessage("reason"));
+
+        assertThat(result).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it -> assertThat(it.succeeded()).isTrue());
+        assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+    }
+}
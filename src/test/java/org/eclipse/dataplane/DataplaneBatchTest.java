@@ -0,0 +1,108 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowBatchTerminateMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.store.DataFlowStore;
+import org.eclipse.dataplane.port.store.InMemoryDataFlowStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.TERMINATED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class DataplaneBatchTest {
+
+    @Test
+    void shouldReturnResultOfEveryItem_whenSomeOfThemFail() {
+        var store = mock(DataFlowStore.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        when(store.saveAll(any())).then(invocation -> {
+            List<DataFlow> dataFlows = invocation.getArgument(0);
+            return dataFlows.stream().map(it -> Result.<Void>success()).toList();
+        });
+        var dataplane = Dataplane.newInstance()
+                .store(store)
+                .onPrepare(dataFlow -> dataFlow.getId().equals("failing")
+                        ? Result.failure(new IllegalStateException("cannot prepare"))
+                        : Result.success(dataFlow))
+                .build();
+        var messages = Stream.of("first", "failing", "second")
+                .map(id -> prepareMessage(id))
+                .toList();
+
+        var results = dataplane.prepareAll(messages);
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).succeeded()).isTrue();
+        assertThatThrownBy(results.get(1)::orElseThrow).isExactlyInstanceOf(IllegalStateException.class);
+        assertThat(results.get(2).succeeded()).isTrue();
+        verify(store).saveAll(argThat(dataFlows -> dataFlows.stream().map(DataFlow::getId).toList().equals(List.of("first", "second"))));
+        verify(store, never()).save(any());
+    }
+
+    @Test
+    void shouldTerminateFlows_whenTheyExist() {
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success).onTerminate(Result::success).build();
+        dataplane.prepare(prepareMessage("existing"));
+
+        var results = dataplane.terminateAll(List.of(
+                new DataFlowBatchTerminateMessage("existing", "reason"),
+                new DataFlowBatchTerminateMessage("unknown", "reason")));
+
+        assertThat(results.get(0).succeeded()).isTrue();
+        assertThatThrownBy(results.get(1)::orElseThrow).isExactlyInstanceOf(DataFlowNotFoundException.class);
+        assertThat(dataplane.status("existing").getContent().state()).isEqualTo(TERMINATED.name());
+    }
+
+    @Test
+    void shouldHoldMailboxes_untilBatchIsSaved() {
+        var saving = new CompletableFuture<Void>();
+        var store = new InMemoryDataFlowStore() {
+            @Override
+            public List<Result<Void>> saveAll(List<DataFlow> dataFlows) {
+                saving.join();
+                return super.saveAll(dataFlows);
+            }
+        };
+        var dataplane = Dataplane.newInstance().store(store).onPrepare(Result::success).onTerminate(Result::success).build();
+
+        var prepared = dataplane.prepareAllAsync(List.of(prepareMessage("dataFlowId")));
+        var terminated = dataplane.terminateAsync("dataFlowId", new DataFlowTerminateMessage("reason"));
+        saving.complete(null);
+
+        assertThat(prepared).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it -> assertThat(it.get(0).succeeded()).isTrue());
+        assertThat(terminated).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it -> assertThat(it.succeeded()).isTrue());
+        assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+    }
+
+    @Test
+    void shouldHandleMessagesForTheSameFlowOneAfterTheOther() {
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success).onTerminate(Result::success).build();
+        dataplane.prepare(prepareMessage("existing"));
+
+        var results = dataplane.terminateAllAsync(List.of(
+                new DataFlowBatchTerminateMessage("existing", "reason"),
+                new DataFlowBatchTerminateMessage("existing", "reason")));
+
+        assertThat(results).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it -> {
+            assertThat(it.get(0).succeeded()).isTrue();
+            assertThat(it.get(1).failed()).isTrue();
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package org.eclipse.dataplane;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.port.callback.CircuitBreaker;
+import org.eclipse.dataplane.port.callback.CircuitBreakerPolicy;
+import org.eclipse.dataplane.port.exception.CallbackRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.controlPlane;
+import static org.eclipse.dataplane.DataplaneFixtures.fastRetries;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+
+class DataplaneCircuitBreakerTest {
+
+    private final WireMockServer controlPlane = controlPlane();
+
+    @BeforeEach
+    void setUp() {
+        controlPlane.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        controlPlane.stop();
+    }
+
+    @Test
+    void shouldRejectCallbacksWithoutSendingThem_whenCircuitBreakerIsOpen() {
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(500)));
+        var circuitBreakerPolicy = CircuitBreakerPolicy.newInstance().failureThreshold(3).openDuration(Duration.ofMinutes(1)).build();
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success)
+                .callbackRetryPolicy(fastRetries()).callbackCircuitBreakerPolicy(circuitBreakerPolicy).build();
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+        assertThat(dataplane.notifyCompleted("dataFlowId").getContent()).failsWithin(5, TimeUnit.SECONDS);
+
+        var result = dataplane.notifyCompleted("dataFlowId");
+
+        assertThat(result.getContent()).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class).withRootCauseInstanceOf(CallbackRejectedException.class);
+        controlPlane.verify(3, postRequestedFor(anyUrl()));
+        assertThat(dataplane.callbackMetrics().hosts()).hasEntrySatisfying("localhost:12313",
+                host -> assertThat(host.circuitBreaker()).isEqualTo(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void shouldBoundConcurrentCallbacksToTheSameHost() {
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200).withFixedDelay(500)));
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success).maxConcurrentCallbacksPerHost(2).build();
+        var ids = IntStream.range(0, 10).mapToObj(i -> "dataFlow-" + i).toList();
+        ids.forEach(id -> dataplane.prepare(prepareMessage(id, controlPlane.baseUrl())));
+
+        var deliveries = ids.stream()
+                .map(id -> dataplane.notifyErroredWithDelivery(id, new RuntimeException("error")).getContent())
+                .toArray(CompletableFuture[]::new);
+
+        await().untilAsserted(() -> assertThat(dataplane.callbackMetrics().requestsInFlight()).isEqualTo(2));
+        assertThat(dataplane.callbackMetrics().requestsWaiting()).isEqualTo(8);
+        assertThat(CompletableFuture.allOf(deliveries)).succeedsWithin(10, TimeUnit.SECONDS);
+        controlPlane.verify(10, postRequestedFor(anyUrl()));
+    }
+}
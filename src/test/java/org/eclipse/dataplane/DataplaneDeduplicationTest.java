@@ -0,0 +1,71 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.dataplane.DataplaneFixtures.TRANSFER_TYPE;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+
+class DataplaneDeduplicationTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @Test
+    void shouldReplayResponse_whenMessageIsDuplicated() {
+        var dataplane = Dataplane.newInstance().onPrepare(dataFlow -> {
+            invocations.incrementAndGet();
+            return Result.success(dataFlow);
+        }).build();
+
+        var first = dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+        var duplicate = dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+
+        assertThat(invocations).hasValue(1);
+        assertThat(duplicate.getContent()).isEqualTo(first.getContent());
+    }
+
+    @Test
+    void shouldHandleMessage_whenMessageIdIsDifferent() {
+        var dataplane = Dataplane.newInstance().onPrepare(dataFlow -> {
+            invocations.incrementAndGet();
+            return Result.success(dataFlow);
+        }).build();
+
+        dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+        dataplane.prepare(prepareMessage("anotherMessageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+        dataplane.prepare(prepareMessage("messageId", "anotherDataFlowId", "http://any", TRANSFER_TYPE));
+
+        assertThat(invocations).hasValue(3);
+    }
+
+    @Test
+    void shouldHandleMessageAgain_whenItFailed() {
+        var dataplane = Dataplane.newInstance().onPrepare(dataFlow -> invocations.incrementAndGet() == 1
+                ? Result.failure(new IllegalStateException("cannot prepare"))
+                : Result.success(dataFlow)).build();
+
+        var first = dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+        var retry = dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+
+        assertThat(first.failed()).isTrue();
+        assertThat(retry.succeeded()).isTrue();
+        assertThat(invocations).hasValue(2);
+    }
+
+    @Test
+    void shouldHandleMessageAgain_whenResponseHasBeenEvicted() {
+        var dataplane = Dataplane.newInstance().maxDeduplicatedMessages(1).onPrepare(dataFlow -> {
+            invocations.incrementAndGet();
+            return Result.success(dataFlow);
+        }).build();
+
+        dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+        dataplane.prepare(prepareMessage("anotherMessageId", "anotherDataFlowId", "http://any", TRANSFER_TYPE));
+        dataplane.prepare(prepareMessage("messageId", "dataFlowId", "http://any", TRANSFER_TYPE));
+
+        assertThat(invocations).hasValue(3);
+    }
+}
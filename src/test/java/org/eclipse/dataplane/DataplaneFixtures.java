@@ -0,0 +1,55 @@
+package org.eclipse.dataplane;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowStartMessage;
+import org.eclipse.dataplane.port.callback.RetryPolicy;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Messages and control plane stub shared by the {@link Dataplane} tests.
+ */
+public final class DataplaneFixtures {
+
+    public static final String TRANSFER_TYPE = "Something-PUSH";
+
+    private DataplaneFixtures() {
+    }
+
+    /**
+     * Control plane stub that receives the callbacks, to be started and stopped by the test.
+     */
+    public static WireMockServer controlPlane() {
+        return new WireMockServer(options().port(12313));
+    }
+
+    /**
+     * Retries that give up quickly, after three attempts.
+     */
+    public static RetryPolicy fastRetries() {
+        return RetryPolicy.newInstance().initialDelay(Duration.ofMillis(10)).maxAttempts(3).build();
+    }
+
+    public static DataFlowPrepareMessage prepareMessage(String dataFlowId) {
+        return prepareMessage(dataFlowId, "http://any");
+    }
+
+    public static DataFlowPrepareMessage prepareMessage(String dataFlowId, String callbackAddress) {
+        return prepareMessage("any", dataFlowId, callbackAddress, TRANSFER_TYPE);
+    }
+
+    public static DataFlowPrepareMessage prepareMessage(String messageId, String dataFlowId, String callbackAddress, String transferType) {
+        return new DataFlowPrepareMessage(messageId, "any", "any", "any", dataFlowId, "any", "any",
+                callbackAddress, transferType, emptyList(), emptyMap());
+    }
+
+    public static DataFlowStartMessage startMessage(String dataFlowId) {
+        return new DataFlowStartMessage("any", "any", "any", "any", dataFlowId, "any", "any",
+                "http://any", TRANSFER_TYPE, null, emptyList(), emptyMap());
+    }
+}
@@ -0,0 +1,110 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowStartedNotificationMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.logic.HandlerTimeouts;
+import org.eclipse.dataplane.logic.HandlerType;
+import org.eclipse.dataplane.port.exception.HandlerTimeoutException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.DataplaneFixtures.startMessage;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.TERMINATED;
+
+class DataplaneHandlerTimeoutTest {
+
+    @Test
+    void shouldInterruptHandlerAndFail_whenItDoesNotCompleteInTime() {
+        var interrupted = new CompletableFuture<Void>();
+        var dataplane = Dataplane.newInstance()
+                .handlerTimeouts(HandlerTimeouts.newInstance().timeout(HandlerType.START, Duration.ofMillis(100)).build())
+                .onStart(dataFlow -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.complete(null);
+                    }
+                    return Result.success(dataFlow);
+                })
+                .build();
+
+        var result = dataplane.start(startMessage("dataFlowId"));
+
+        assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(HandlerTimeoutException.class);
+        assertThat(interrupted).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(dataplane.handlerMetrics().get(HandlerType.START)).satisfies(metrics -> {
+            assertThat(metrics.invocations()).isEqualTo(1);
+            assertThat(metrics.timeouts()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void shouldKeepFlowBusy_untilTimedOutHandlerReturns() {
+        var terminating = new AtomicBoolean();
+        var overlapped = new CompletableFuture<Boolean>();
+        var dataplane = Dataplane.newInstance()
+                .handlerTimeouts(HandlerTimeouts.newInstance().timeout(HandlerType.TERMINATE, Duration.ofMillis(100)).build())
+                .onPrepare(Result::success)
+                .onTerminate(dataFlow -> {
+                    terminating.set(true);
+                    var end = System.nanoTime() + Duration.ofMillis(500).toNanos();
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait(); // ignores the interruption
+                    }
+                    terminating.set(false);
+                    return Result.success(dataFlow);
+                })
+                .onStarted(dataFlow -> {
+                    overlapped.complete(terminating.get());
+                    return Result.success(dataFlow);
+                })
+                .build();
+        dataplane.prepare(prepareMessage("dataFlowId"));
+
+        var terminated = dataplane.terminateAsync("dataFlowId", new DataFlowTerminateMessage("reason"));
+        await().until(terminating::get);
+        var started = dataplane.startedAsync("dataFlowId", new DataFlowStartedNotificationMessage(null));
+
+        assertThat(terminated).succeedsWithin(5, TimeUnit.SECONDS)
+                .satisfies(result -> assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(HandlerTimeoutException.class));
+        assertThat(started).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(overlapped).succeedsWithin(5, TimeUnit.SECONDS).isEqualTo(false);
+    }
+
+    @Test
+    void shouldTerminateFlow_whenAsyncHandlerDoesNotCompleteInTime() {
+        var handler = new CompletableFuture<Result<DataFlow>>();
+        var dataplane = Dataplane.newInstance()
+                .handlerTimeouts(HandlerTimeouts.newInstance().timeout(HandlerType.PREPARE, "Something-PUSH", Duration.ofMillis(100)).build())
+                .onPrepareAsync(dataFlow -> handler)
+                .build();
+
+        dataplane.prepare(prepareMessage("dataFlowId"));
+
+        await().untilAsserted(() -> assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name()));
+        assertThat(handler).isCancelled();
+    }
+
+    @Test
+    void shouldRecordLatency() {
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
+
+        dataplane.prepare(prepareMessage("dataFlowId"));
+
+        assertThat(dataplane.handlerMetrics().get(HandlerType.PREPARE)).satisfies(metrics -> {
+            assertThat(metrics.invocations()).isEqualTo(1);
+            assertThat(metrics.failures()).isZero();
+            assertThat(metrics.p99()).isPositive().isLessThanOrEqualTo(metrics.max());
+        });
+    }
+}
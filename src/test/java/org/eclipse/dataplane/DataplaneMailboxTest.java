@@ -0,0 +1,94 @@
+package org.eclipse.dataplane;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.port.exception.IllegalTransitionException;
+import org.eclipse.dataplane.port.store.CachingDataFlowStore;
+import org.eclipse.dataplane.port.store.InMemoryDataFlowStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.DataplaneFixtures.startMessage;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.TERMINATED;
+
+class DataplaneMailboxTest {
+
+    @Test
+    void shouldRunOperationsOnTheSameFlowOneAtATime() {
+        var events = new CopyOnWriteArrayList<String>();
+        var completedHandler = new CompletableFuture<Void>();
+        var dataplane = Dataplane.newInstance()
+                .onPrepare(Result::success)
+                .onCompletedAsync(dataFlow -> {
+                    events.add("completed started");
+                    return completedHandler.thenApply(it -> {
+                        events.add("completed finished");
+                        return Result.success(dataFlow);
+                    });
+                })
+                .onTerminate(dataFlow -> {
+                    events.add("terminate");
+                    return Result.success(dataFlow);
+                })
+                .build();
+        dataplane.prepare(prepareMessage("dataFlowId"));
+
+        var completed = dataplane.completedAsync("dataFlowId");
+        await().untilAsserted(() -> assertThat(events).containsExactly("completed started"));
+        var terminated = dataplane.terminateAsync("dataFlowId", new DataFlowTerminateMessage("reason"));
+        completedHandler.complete(null);
+
+        assertThat(completed).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it -> assertThat(it.succeeded()).isTrue());
+        assertThat(terminated).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it ->
+                assertThatThrownBy(it::orElseThrow).isExactlyInstanceOf(IllegalTransitionException.class));
+        assertThat(events).containsExactly("completed started", "completed finished");
+        assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(COMPLETED.name());
+    }
+
+    @Test
+    void shouldNotDeadlock_whenHandlerOperatesOnItsOwnFlow() {
+        var dataplane = new AtomicReference<Dataplane>();
+        dataplane.set(Dataplane.newInstance()
+                .onStart(dataFlow -> {
+                    dataplane.get().terminate(dataFlow.getId(), new DataFlowTerminateMessage("reason"));
+                    return Result.success(dataFlow);
+                })
+                .build());
+
+        var started = dataplane.get().startAsync(startMessage("dataFlowId"));
+
+        assertThat(started).succeedsWithin(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldInvokeHandlersOnTheMailbox_whenStoreCompletesOnItsExecutor() {
+        var dataplane = new AtomicReference<Dataplane>();
+        var handlerThread = new AtomicReference<String>();
+        dataplane.set(Dataplane.newInstance()
+                .store(new CachingDataFlowStore(new InMemoryDataFlowStore(), 100))
+                .onPrepare(Result::success)
+                .onCompleted(dataFlow -> {
+                    handlerThread.set(Thread.currentThread().getName());
+                    dataplane.get().terminate(dataFlow.getId(), new DataFlowTerminateMessage("reason"));
+                    return Result.success(dataFlow);
+                })
+                .onTerminate(Result::success)
+                .build());
+        dataplane.get().prepare(prepareMessage("dataFlowId"));
+
+        var completed = dataplane.get().completedAsync("dataFlowId");
+
+        assertThat(completed).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(handlerThread.get()).doesNotStartWith("dataplane-store");
+        assertThat(dataplane.get().status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+    }
+}
@@ -0,0 +1,86 @@
+package org.eclipse.dataplane;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.port.exception.CallbackFailedException;
+import org.eclipse.dataplane.port.store.InMemoryDataFlowStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.controlPlane;
+import static org.eclipse.dataplane.DataplaneFixtures.fastRetries;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+
+class DataplanePendingNotificationsTest {
+
+    private final WireMockServer controlPlane = controlPlane();
+
+    @BeforeEach
+    void setUp() {
+        controlPlane.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        controlPlane.stop();
+    }
+
+    @Test
+    void shouldDeliverPendingNotification_whenDataplaneIsBuiltAgain() {
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(500)));
+        var store = new InMemoryDataFlowStore();
+        var dataplane = Dataplane.newInstance().store(store).onPrepare(Result::success).callbackRetryPolicy(fastRetries()).build();
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+        assertThat(dataplane.notifyCompleted("dataFlowId").getContent()).failsWithin(5, TimeUnit.SECONDS);
+
+        controlPlane.resetAll();
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
+        var restarted = Dataplane.newInstance().store(store).build();
+
+        await().untilAsserted(() -> assertThat(restarted.status("dataFlowId").getContent().state()).isEqualTo(COMPLETED.name()));
+        controlPlane.verify(1, postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/completed")));
+        assertThat(store.findById("dataFlowId").getContent().hasPendingNotifications()).isFalse();
+    }
+
+    @Test
+    void shouldDeliverPendingNotification_whenRetriesHaveBeenExhausted() {
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(500)));
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success).callbackRetryPolicy(fastRetries())
+                .pendingNotificationsSweepInterval(Duration.ofMillis(200)).build();
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+        assertThat(dataplane.notifyCompleted("dataFlowId").getContent()).failsWithin(5, TimeUnit.SECONDS);
+
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
+
+        await().untilAsserted(() -> assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(COMPLETED.name()));
+        assertThat(dataplane.callbackMetrics().exhausted()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnFailedFuture_whenCallbackAddressIsNotValid() {
+        var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
+        dataplane.prepare(prepareMessage("dataFlowId", null));
+
+        var first = dataplane.notifyCompleted("dataFlowId");
+        var second = dataplane.notifyCompleted("dataFlowId");
+
+        assertThat(first.getContent()).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class).withCauseInstanceOf(CallbackFailedException.class);
+        assertThat(second.getContent()).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class).withCauseInstanceOf(CallbackFailedException.class);
+        assertThat(dataplane.status("dataFlowId").getContent().state()).isNotEqualTo(COMPLETED.name());
+    }
+}
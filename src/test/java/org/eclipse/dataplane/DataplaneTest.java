@@ -3,41 +3,146 @@ package org.eclipse.dataplane;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import org.eclipse.dataplane.domain.Result;
-import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.port.callback.RetryPolicy;
+import org.eclipse.dataplane.port.exception.CallbackFailedException;
 import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+import org.eclipse.dataplane.port.exception.IllegalTransitionException;
+import org.eclipse.dataplane.port.store.DataFlowStore;
+import org.eclipse.dataplane.port.store.InMemoryDataFlowStore;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
-import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
-import static java.util.Collections.emptyList;
-import static java.util.Collections.emptyMap;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.controlPlane;
+import static org.eclipse.dataplane.DataplaneFixtures.fastRetries;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
 import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.TERMINATED;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 class DataplaneTest {
 
+    private final WireMockServer controlPlane = controlPlane();
+
+    @BeforeEach
+    void setUp() {
+        controlPlane.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        controlPlane.stop();
+    }
+
     @Nested
-    class NotifyCompleted {
+    class Async {
+
+        @Test
+        void shouldRunBlockingStoreOperationsOnStoreExecutor() {
+            var storeThread = new AtomicReference<String>();
+            var store = mock(DataFlowStore.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+            when(store.findById(any())).then(invocation -> {
+                storeThread.set(Thread.currentThread().getName());
+                return Result.failure(new DataFlowNotFoundException("not found"));
+            });
+            var dataplane = Dataplane.newInstance()
+                    .store(store)
+                    .storeExecutor(Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "store-thread")))
+                    .build();
 
-        private final WireMockServer controlPlane = new WireMockServer(options().port(12313));
+            var status = dataplane.statusAsync("dataFlowId");
 
-        @BeforeEach
-        void setUp() {
-            controlPlane.start();
+            assertThat(status).succeedsWithin(5, TimeUnit.SECONDS)
+                    .satisfies(result -> assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowNotFoundException.class));
+            assertThat(storeThread.get()).isEqualTo("store-thread");
         }
+    }
 
-        @AfterEach
-        void tearDown() {
-            controlPlane.stop();
+    @Nested
+    class Close {
+
+        @Test
+        void shouldShutDownOwnedExecutors_butNotTheGivenOnes() {
+            var storeExecutor = Executors.newSingleThreadExecutor();
+            var dataplane = Dataplane.newInstance().storeExecutor(storeExecutor).onPrepare(Result::success).build();
+
+            dataplane.close();
+
+            var result = dataplane.prepare(prepareMessage("dataFlowId"));
+            assertThat(result.failed()).isTrue();
+            assertThat(storeExecutor.isShutdown()).isFalse();
+            storeExecutor.shutdown();
         }
+    }
+
+    @Nested
+    class Transitions {
+
+        @Test
+        void shouldRejectCompleted_whenDataFlowHasBeenTerminated() {
+            var dataplane = Dataplane.newInstance()
+                    .onPrepare(Result::success)
+                    .onTerminate(Result::success)
+                    .onCompleted(Result::success)
+                    .build();
+            dataplane.prepare(prepareMessage("dataFlowId"));
+            dataplane.terminate("dataFlowId", new DataFlowTerminateMessage("reason"));
+
+            var result = dataplane.completed("dataFlowId");
+
+            assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(IllegalTransitionException.class);
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+        }
+
+        @Test
+        void shouldRejectSave_whenDataFlowChangedSinceItWasRead() {
+            var store = new InMemoryDataFlowStore();
+            var dataplane = Dataplane.newInstance()
+                    .store(store)
+                    .onPrepare(Result::success)
+                    .onTerminate(Result::success)
+                    .onCompleted(dataFlow -> {
+                        var concurrent = store.findById(dataFlow.getId()).getContent();
+                        concurrent.transitionToTerminated("concurrently");
+                        store.save(concurrent);
+                        return Result.success(dataFlow);
+                    })
+                    .build();
+            dataplane.prepare(prepareMessage("dataFlowId"));
+
+            var result = dataplane.completed("dataFlowId");
+
+            assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowVersionConflictException.class);
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+        }
+    }
+
+    @Nested
+    class NotifyCompleted {
 
         @Test
         void shouldFail_whenDataFlowDoesNotExist() {
@@ -51,8 +156,8 @@ class DataplaneTest {
 
         @Test
         void shouldReturnFailedFuture_whenControlPlaneIsNotAvailable() {
-            var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
-            dataplane.prepare(createPrepareMessage());
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success).callbackRetryPolicy(fastRetries()).build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
             controlPlane.stop();
 
             var result = dataplane.notifyCompleted("dataFlowId");
@@ -65,21 +170,53 @@ class DataplaneTest {
         void shouldReturnFailedFuture_whenControlPlaneRespondWithError() {
             controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(500)));
 
-            var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
-            dataplane.prepare(createPrepareMessage());
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success).callbackRetryPolicy(fastRetries()).build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
 
             var result = dataplane.notifyCompleted("dataFlowId");
 
             assertThat(result.succeeded());
-            assertThat(result.getContent()).failsWithin(5, TimeUnit.SECONDS);
+            assertThat(result.getContent()).failsWithin(5, TimeUnit.SECONDS)
+                    .withThrowableOfType(ExecutionException.class).withCauseInstanceOf(CallbackFailedException.class);
             assertThat(dataplane.status("dataFlowId").getContent().state()).isNotEqualTo(COMPLETED.name());
+            controlPlane.verify(3, postRequestedFor(anyUrl()));
+            assertThat(dataplane.callbackMetrics().exhausted()).isEqualTo(1);
+        }
+
+        @Test
+        void shouldFailAttempt_whenControlPlaneDoesNotRespondWithinRequestTimeout() {
+            controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200).withFixedDelay(2000)));
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success)
+                    .callbackRequestTimeout(Duration.ofMillis(200))
+                    .callbackRetryPolicy(RetryPolicy.newInstance().maxAttempts(1).build())
+                    .build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+            var result = dataplane.notifyCompleted("dataFlowId");
+
+            assertThat(result.getContent()).failsWithin(1, TimeUnit.SECONDS)
+                    .withThrowableOfType(ExecutionException.class).withRootCauseInstanceOf(HttpTimeoutException.class);
+        }
+
+        @Test
+        void shouldNotRetry_whenControlPlaneRejectsCallback() {
+            controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(400)));
+
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success).callbackRetryPolicy(fastRetries()).build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+            var result = dataplane.notifyCompleted("dataFlowId");
+
+            assertThat(result.getContent()).failsWithin(5, TimeUnit.SECONDS);
+            controlPlane.verify(1, postRequestedFor(anyUrl()));
+            assertThat(dataplane.callbackMetrics().retries()).isZero();
         }
 
         @Test
         void shouldTransitionToCompleted_whenControlPlaneRespondCorrectly() {
             controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
             var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
-            dataplane.prepare(createPrepareMessage());
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
 
             var result = dataplane.notifyCompleted("dataFlowId");
 
@@ -100,21 +237,61 @@ class DataplaneTest {
                     .willReturn(aResponse().withStatus(200)));
 
             var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
-            dataplane.prepare(createPrepareMessage());
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
 
             var result = dataplane.notifyCompleted("dataFlowId");
 
             assertThat(result.succeeded());
             assertThat(result.getContent()).succeedsWithin(5, TimeUnit.SECONDS);
             assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(COMPLETED.name());
+            assertThat(dataplane.callbackMetrics().retries()).isEqualTo(1);
+            assertThat(dataplane.callbackMetrics().retriesInFlight()).isZero();
+        }
+    }
+
+    @Nested
+    class NotifyErrored {
+
+        @Test
+        void shouldTerminateAndSendErroredCallback() {
+            controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+            var result = dataplane.notifyErroredWithDelivery("dataFlowId", new RuntimeException("transfer \"failed\""));
+
+            assertThat(result.getContent()).succeedsWithin(5, TimeUnit.SECONDS);
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+            controlPlane.verify(1, postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/errored"))
+                    .withRequestBody(equalToJson("{\"reason\":\"transfer \\\"failed\\\"\"}")));
         }
 
-        private DataFlowPrepareMessage createPrepareMessage() {
-            return new DataFlowPrepareMessage("any", "any", "any", "any", "dataFlowId", "any", "any",
-                    controlPlane.baseUrl(), "Something-PUSH", emptyList(), emptyMap());
+        @Test
+        void shouldCollapseRepeatedErrors_whenNotificationIsStillPending() {
+            controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200).withFixedDelay(500)));
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+            var first = dataplane.notifyErroredWithDelivery("dataFlowId", new RuntimeException("first"));
+            var second = dataplane.notifyErroredWithDelivery("dataFlowId", new RuntimeException("second"));
+
+            assertThat(second.succeeded()).isTrue();
+            assertThat(CompletableFuture.allOf(first.getContent(), second.getContent())).succeedsWithin(5, TimeUnit.SECONDS);
+            controlPlane.verify(1, postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/errored"))
+                    .withRequestBody(equalToJson("{\"reason\":\"first\"}")));
         }
 
-        // TODO: retry case
+        @Test
+        void shouldTerminateAndNotify_whenDeliveryIsNotAwaited() {
+            controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
+            var dataplane = Dataplane.newInstance().onPrepare(Result::success).build();
+            dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+            dataplane.notifyErrored("dataFlowId", new RuntimeException("error"));
+            dataplane.notifyErrored("unknown", new RuntimeException("error"));
 
+            await().untilAsserted(() -> controlPlane.verify(1, postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/errored"))));
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+        }
     }
 }
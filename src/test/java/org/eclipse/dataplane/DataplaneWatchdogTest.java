@@ -0,0 +1,77 @@
+package org.eclipse.dataplane;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowStartedNotificationMessage;
+import org.eclipse.dataplane.logic.WatchdogPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.controlPlane;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.TERMINATED;
+
+class DataplaneWatchdogTest {
+
+    private final WireMockServer controlPlane = controlPlane();
+
+    @BeforeEach
+    void setUp() {
+        controlPlane.start();
+        controlPlane.stubFor(post(anyUrl()).willReturn(aResponse().withStatus(200)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        controlPlane.stop();
+    }
+
+    @Test
+    void shouldTerminate_andNotifyErrored_whenDataFlowExceedsStateDeadline() {
+        var terminated = new CompletableFuture<DataFlow>();
+        var dataplane = Dataplane.newInstance()
+                .watchdogPolicy(WatchdogPolicy.newInstance().deadline(DataFlow.State.PREPARED, Duration.ofMillis(200)).build())
+                .onPrepare(Result::success)
+                .onTerminate(dataFlow -> {
+                    terminated.complete(dataFlow);
+                    return Result.success(dataFlow);
+                })
+                .build();
+
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+
+        assertThat(terminated).succeedsWithin(5, TimeUnit.SECONDS);
+        await().untilAsserted(() -> {
+            controlPlane.verify(postRequestedFor(urlPathEqualTo("/transfers/dataFlowId/dataflow/errored")));
+            assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(TERMINATED.name());
+        });
+    }
+
+    @Test
+    void shouldNotTerminate_whenDataFlowLeavesStateBeforeDeadline() throws InterruptedException {
+        var dataplane = Dataplane.newInstance()
+                .watchdogPolicy(WatchdogPolicy.newInstance().deadline(DataFlow.State.PREPARED, Duration.ofMillis(200)).build())
+                .onPrepare(Result::success)
+                .onStarted(Result::success)
+                .build();
+
+        dataplane.prepare(prepareMessage("dataFlowId", controlPlane.baseUrl()));
+        dataplane.started("dataFlowId", new DataFlowStartedNotificationMessage(null));
+
+        Thread.sleep(500);
+        assertThat(dataplane.status("dataFlowId").getContent().state()).isEqualTo(DataFlow.State.STARTED.name());
+    }
+}
@@ -1,5 +1,6 @@
 package org.eclipse.dataplane;
 
+import org.eclipse.dataplane.port.json.SignalingMessageProvider;
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
 import org.eclipse.jetty.ee10.servlet.Source;
@@ -50,7 +51,7 @@ public class HttpServer {
 
     private ServletHolder createServletHolder(Object controller) {
         var resourceConfig = new ResourceConfig();
-        resourceConfig.registerClasses(controller.getClass());
+        resourceConfig.registerClasses(controller.getClass(), SignalingMessageProvider.class);
         resourceConfig.registerInstances(new AbstractBinder() {
             @Override
             protected void configure() {
@@ -60,6 +61,7 @@ public class HttpServer {
         var servlet = new ServletContainer(resourceConfig);
         var servletHolder = new ServletHolder(Source.EMBEDDED);
         servletHolder.setServlet(servlet);
+        servletHolder.setAsyncSupported(true);
         return servletHolder;
     }
 
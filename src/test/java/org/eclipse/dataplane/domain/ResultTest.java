@@ -0,0 +1,42 @@
+package org.eclipse.dataplane.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultTest {
+
+    @Test
+    void shouldShareInstance_whenSuccessHasNoContent() {
+        assertThat(Result.success()).isSameAs(Result.success()).isSameAs(Result.success(null));
+        assertThat(Result.success().getContent()).isNull();
+    }
+
+    @Test
+    void shouldReturnSameResult_whenMapReturnsSameContent() {
+        var content = "content";
+        var result = Result.success(content);
+
+        assertThat(result.map(it -> it)).isSameAs(result);
+        assertThat(result.map(String::length).getContent()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldReturnSameFailure_whenMappedOrComposed() {
+        var exception = new IllegalStateException("failed");
+        Result<String> failure = Result.failure(exception);
+
+        assertThat(failure.map(String::length)).isSameAs(failure);
+        assertThat(failure.compose(it -> Result.success(it.length()))).isSameAs(failure);
+        assertThat(failure.map(String::length).failed()).isTrue();
+    }
+
+    @Test
+    void shouldFail_whenMapThrows() {
+        var result = Result.success("content").map(it -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        assertThat(result.failed()).isTrue();
+    }
+}
@@ -0,0 +1,51 @@
+package org.eclipse.dataplane.domain.dataflow;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferTypeTest {
+
+    @Test
+    void shouldParseFormatAndDirection() {
+        var transferType = TransferType.parse("HttpData-pull");
+
+        assertThat(transferType.format()).isEqualTo("HttpData");
+        assertThat(transferType.direction()).isEqualTo(TransferType.Direction.PULL);
+        assertThat(transferType.isPull()).isTrue();
+        assertThat(transferType.isPush()).isFalse();
+    }
+
+    @Test
+    void shouldParseDirectionFromSecondSegment_whenTypeHasMoreSegments() {
+        var transferType = TransferType.parse("HttpData-PUSH-stream");
+
+        assertThat(transferType.format()).isEqualTo("HttpData");
+        assertThat(transferType.isPush()).isTrue();
+        assertThat(TransferType.parse("HttpData-stream-PULL").direction()).isNull();
+    }
+
+    @Test
+    void shouldBeNeitherPushNorPull_whenDirectionIsMissing() {
+        var transferType = TransferType.parse("HttpData");
+
+        assertThat(transferType.format()).isEqualTo("HttpData");
+        assertThat(transferType.direction()).isNull();
+        assertThat(transferType.isPush()).isFalse();
+        assertThat(transferType.isPull()).isFalse();
+    }
+
+    @Test
+    void shouldReturnSameInstance_whenParsedAgain() {
+        assertThat(TransferType.parse("Something-PUSH")).isSameAs(TransferType.parse("Something-PUSH"));
+    }
+
+    @Test
+    void shouldNotFailDataFlowChecks_whenTransferTypeIsMalformed() {
+        var dataFlow = DataFlow.newInstance().id("id").transferType("Malformed").build();
+
+        assertThat(dataFlow.isPush()).isFalse();
+        assertThat(dataFlow.isPull()).isFalse();
+        assertThat(dataFlow.copy().getParsedTransferType()).isSameAs(dataFlow.getParsedTransferType());
+    }
+}
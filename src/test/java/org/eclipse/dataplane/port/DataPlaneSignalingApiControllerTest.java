@@ -0,0 +1,202 @@
+package org.eclipse.dataplane.port;
+
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.eclipse.dataplane.Dataplane;
+import org.eclipse.dataplane.HttpServer;
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.eclipse.dataplane.logic.AdmissionPolicy;
+import org.eclipse.dataplane.logic.HandlerTimeouts;
+import org.eclipse.dataplane.logic.HandlerType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.http.ContentType.JSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.DataplaneFixtures.prepareMessage;
+import static org.eclipse.dataplane.DataplaneFixtures.startMessage;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DataPlaneSignalingApiControllerTest {
+
+    private final HttpServer httpServer = new HttpServer(21342);
+    private final Dataplane dataplane = Dataplane.newInstance()
+            .onPrepare(Result::success)
+            .onTerminate(Result::success)
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        httpServer.start();
+        httpServer.deploy("/data-plane", dataplane.controller());
+        dataplane.prepare(prepareMessage("dataFlowId"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpServer.stop();
+    }
+
+    @Nested
+    class Status {
+
+        @Test
+        void shouldReturnNotModified_whenVersionIsUnchanged() {
+            var version = given().baseUri(baseUri()).get("/v1/dataflows/dataFlowId/status")
+                    .then().statusCode(200).header("ETag", notNullValue()).extract().header("ETag");
+
+            given().baseUri(baseUri()).header("If-None-Match", version)
+                    .get("/v1/dataflows/dataFlowId/status")
+                    .then().statusCode(304);
+        }
+
+        @Test
+        void shouldRespond_whenDataFlowChangesWhileWaiting() {
+            var version = given().baseUri(baseUri()).get("/v1/dataflows/dataFlowId/status").then().extract().header("ETag");
+
+            var poll = CompletableFuture.supplyAsync(() -> given().baseUri(baseUri()).header("If-None-Match", version)
+                    .queryParam("wait", 10)
+                    .get("/v1/dataflows/dataFlowId/status")
+                    .then().statusCode(200).body("state", equalTo("TERMINATED")));
+            dataplane.terminate("dataFlowId", new DataFlowTerminateMessage("reason"));
+
+            assertThat(poll).succeedsWithin(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Nested
+    class Admission {
+
+        @Test
+        void shouldReturnTooManyRequests_whenMaxActiveFlowsIsReached() {
+            var limited = Dataplane.newInstance()
+                    .admissionPolicy(AdmissionPolicy.newInstance().maxActiveFlows(0).retryAfter(Duration.ofSeconds(5)).build())
+                    .onPrepare(Result::success)
+                    .build();
+            httpServer.deploy("/limited", limited.controller());
+
+            given().baseUri("http://localhost:%d/limited".formatted(httpServer.port()))
+                    .contentType(JSON)
+                    .body(prepareMessage("anotherDataFlowId"))
+                    .post("/v1/dataflows/prepare")
+                    .then()
+                    .statusCode(429)
+                    .header("Retry-After", "5");
+        }
+    }
+
+    @Nested
+    class HandlerTimeout {
+
+        @Test
+        void shouldReturnGatewayTimeout_whenHandlerDoesNotCompleteInTime() {
+            var slow = Dataplane.newInstance()
+                    .handlerTimeouts(HandlerTimeouts.newInstance().timeout(HandlerType.START, Duration.ofMillis(100)).build())
+                    .onStart(dataFlow -> {
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return Result.success(dataFlow);
+                    })
+                    .build();
+            httpServer.deploy("/slow", slow.controller());
+
+            given().baseUri("http://localhost:%d/slow".formatted(httpServer.port()))
+                    .contentType(JSON)
+                    .body(startMessage("slowDataFlowId"))
+                    .post("/v1/dataflows/start")
+                    .then()
+                    .statusCode(504);
+        }
+    }
+
+    @Nested
+    class Json {
+
+        @Test
+        void shouldPrepare_whenBodyHasUnknownFields() {
+            given().baseUri(baseUri())
+                    .contentType(JSON)
+                    .body("""
+                            {"processId":"jsonDataFlowId","transferType":"Something-PUSH","unknown":{"nested":[1,2]},
+                            "labels":["label"],"metadata":{"key":"value"}}
+                            """)
+                    .post("/v1/dataflows/prepare")
+                    .then()
+                    .statusCode(200)
+                    .body("state", equalTo("PREPARED"));
+        }
+
+        @Test
+        void shouldReturnBadRequest_whenBodyIsMalformed() {
+            given().baseUri(baseUri())
+                    .contentType(JSON)
+                    .body("{\"processId\":")
+                    .post("/v1/dataflows/prepare")
+                    .then()
+                    .statusCode(400);
+        }
+    }
+
+    @Nested
+    class Events {
+
+        @Test
+        void shouldStreamStatusChanges() {
+            var request = HttpRequest.newBuilder(URI.create(baseUri() + "/v1/dataflows/events?flowId=dataFlowId"))
+                    .header("Accept", "text/event-stream")
+                    .build();
+            var response = HttpClient.newHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofLines());
+
+            var events = response.thenApply(lines -> lines.body()
+                    .filter(line -> line.startsWith("data:"))
+                    .limit(2)
+                    .toList());
+            dataplane.terminate("dataFlowId", new DataFlowTerminateMessage("reason"));
+
+            assertThat(events).succeedsWithin(5, TimeUnit.SECONDS).satisfies(data -> {
+                assertThat(data.get(0)).contains("PREPARED");
+                assertThat(data.get(1)).contains("TERMINATED");
+            });
+        }
+
+        @Test
+        void shouldReleaseStream_whenClientDisconnectedWithoutChanges() {
+            var observed = spy(dataplane);
+            var sink = mock(SseEventSink.class);
+            when(sink.isClosed()).thenReturn(true);
+            var controller = new DataPlaneSignalingApiController(observed, Duration.ofMillis(50));
+
+            controller.events(null, null, null, null, sink, mock(Sse.class));
+
+            await().untilAsserted(() -> verify(observed).removeListener(any()));
+            verify(sink, never()).send(any());
+        }
+    }
+
+    private String baseUri() {
+        return "http://localhost:%d/data-plane".formatted(httpServer.port());
+    }
+}
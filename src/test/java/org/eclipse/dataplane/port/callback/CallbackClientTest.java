@@ -0,0 +1,52 @@
+package org.eclipse.dataplane.port.callback;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CallbackClientTest {
+
+    private static final URI ENDPOINT = URI.create("http://control-plane/callback");
+
+    @Test
+    void shouldReleaseHalfOpenTrial_whenItFailsWithAnyException() {
+        var httpClient = mock(HttpClient.class);
+        var response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        doReturn(CompletableFuture.failedFuture(new IOException("unreachable")),
+                CompletableFuture.failedFuture(new IllegalStateException("unexpected")),
+                CompletableFuture.completedFuture(response))
+                .when(httpClient).sendAsync(any(), any());
+        var client = CallbackClient.newInstance()
+                .httpClient(httpClient)
+                .retryPolicy(RetryPolicy.newInstance().maxAttempts(1).build())
+                .circuitBreakerPolicy(CircuitBreakerPolicy.newInstance().failureThreshold(1).openDuration(Duration.ofMillis(500)).build())
+                .build();
+        assertThat(client.send(ENDPOINT, "{}")).failsWithin(5, TimeUnit.SECONDS);
+        await().until(() -> circuitBreakerState(client) == CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(client.send(ENDPOINT, "{}")).failsWithin(5, TimeUnit.SECONDS);
+        assertThat(circuitBreakerState(client)).isEqualTo(CircuitBreaker.State.OPEN);
+        await().until(() -> circuitBreakerState(client) == CircuitBreaker.State.HALF_OPEN);
+
+        assertThat(client.send(ENDPOINT, "{}")).succeedsWithin(5, TimeUnit.SECONDS);
+        assertThat(circuitBreakerState(client)).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private CircuitBreaker.State circuitBreakerState(CallbackClient client) {
+        return client.metrics().hosts().get("control-plane").circuitBreaker();
+    }
+}
@@ -0,0 +1,160 @@
+package org.eclipse.dataplane.port.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.domain.dataflow.DataFlowPrepareMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowResponseMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowStartMessage;
+import org.eclipse.dataplane.domain.dataflow.DataFlowTerminateMessage;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignalingMessageProviderTest {
+
+    private final SignalingMessageProvider provider = new SignalingMessageProvider();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Nested
+    class Read {
+
+        @Test
+        void shouldReadMessage_whenWrittenByJackson() throws IOException {
+            var message = startMessage();
+
+            var read = read(DataFlowStartMessage.class, DataFlowStartMessage.class, objectMapper.writeValueAsString(message));
+
+            assertThat(read).isEqualTo(message);
+        }
+
+        @Test
+        void shouldIgnoreUnknownFieldsAndDefaultMissingOnes() throws IOException {
+            var json = """
+                    {"processId":"id","unknown":{"a":[1,{"b":null}],"c":"\\"escaped\\" \\u00e9"},"transferType":"Http-PUSH"}
+                    """;
+
+            var read = read(DataFlowPrepareMessage.class, DataFlowPrepareMessage.class, json);
+
+            assertThat(read.processId()).isEqualTo("id");
+            assertThat(read.transferType()).isEqualTo("Http-PUSH");
+            assertThat(read.labels()).isNull();
+            assertThat(read.metadata()).isNull();
+        }
+
+        @Test
+        void shouldSkipUnknownFields_whenDeeplyNestedOrLarge() throws IOException {
+            var nested = "[".repeat(200) + "{\"a\":-1.5e+3}" + "]".repeat(200);
+            var large = "x".repeat(100_000);
+            var json = """
+                    {"processId":"id","nested":%s,"large":"%s","numbers":[0,-0.25,1E9,2e-3],"flags":[true,false,null],"transferType":"Http-PUSH"}
+                    """.formatted(nested, large);
+
+            var read = read(DataFlowPrepareMessage.class, DataFlowPrepareMessage.class, json);
+
+            assertThat(read.processId()).isEqualTo("id");
+            assertThat(read.transferType()).isEqualTo("Http-PUSH");
+        }
+
+        @Test
+        void shouldFailWithBadRequest_whenUnknownFieldIsMalformed() {
+            var malformed = List.of("[1,}", "tru", "{\"a\" 1}", "{1:2}", "-", "1.", "1e+", "\"unterminated");
+
+            for (var value : malformed) {
+                assertThatThrownBy(() -> read(DataFlowPrepareMessage.class, DataFlowPrepareMessage.class, "{\"unknown\":" + value + "}"))
+                        .as(value)
+                        .isInstanceOf(BadRequestException.class);
+            }
+        }
+
+        @Test
+        void shouldReadList_whenBatch() throws IOException {
+            var messages = List.of(prepareMessage("first"), prepareMessage("second"));
+            Type listType = new ArrayList<DataFlowPrepareMessage>() { }.getClass().getGenericSuperclass();
+
+            var read = read(List.class, listType, objectMapper.writeValueAsString(messages));
+
+            assertThat(read).isEqualTo(messages);
+        }
+
+        @Test
+        void shouldFailWithBadRequest_whenJsonIsMalformed() {
+            assertThatThrownBy(() -> read(DataFlowPrepareMessage.class, DataFlowPrepareMessage.class, "{\"processId\":\"id\""))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> read(DataFlowPrepareMessage.class, DataFlowPrepareMessage.class, "{\"processId\":1}"))
+                    .isInstanceOf(BadRequestException.class);
+            assertThatThrownBy(() -> read(DataFlowPrepareMessage.class, DataFlowPrepareMessage.class, "{} {}"))
+                    .isInstanceOf(BadRequestException.class);
+        }
+
+        @Test
+        void shouldNotBeReadable_whenTypeIsNotSupported() {
+            assertThat(provider.isReadable(DataFlowTerminateMessage.class, DataFlowTerminateMessage.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE)).isFalse();
+            assertThat(provider.isReadable(List.class, List.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE)).isFalse();
+        }
+    }
+
+    @Nested
+    class Write {
+
+        @Test
+        void shouldWriteMessage_readableByJackson() throws IOException {
+            var message = startMessage();
+
+            var json = write(message);
+
+            assertThat(objectMapper.readValue(json, DataFlowStartMessage.class)).isEqualTo(message);
+            assertThat(objectMapper.readTree(json)).isEqualTo(objectMapper.valueToTree(message));
+        }
+
+        @Test
+        void shouldWriteNulls() throws IOException {
+            var message = new DataFlowResponseMessage("dataplane", null, "STARTED", null);
+
+            var json = write(message);
+
+            assertThat(json).isEqualTo("{\"dataplaneId\":\"dataplane\",\"dataAddress\":null,\"state\":\"STARTED\",\"error\":null}");
+        }
+    }
+
+    private DataFlowPrepareMessage prepareMessage(String processId) {
+        return new DataFlowPrepareMessage("message", "participant", "counterParty", "context", processId, "agreement",
+                "dataset", "http://callback", "HttpData-PUSH", List.of("label"), Map.of("key", "value"));
+    }
+
+    private DataFlowStartMessage startMessage() {
+        var dataAddress = new DataAddress("type", "https://w3id.org/idsa/v4.1/HTTP", "http://endpoint/\"path\"\n",
+                List.of(new DataAddress.EndpointProperty("type", "authorization", "token é😀"), new DataAddress.EndpointProperty("type", "empty", null)));
+        var metadata = Map.<String, Object>of("string", "value", "integer", 42, "long", 1L << 40, "double", 1.5,
+                "boolean", true, "list", List.of("a", 1, Map.of("nested", false)), "map", Map.of("key", List.of()));
+        return new DataFlowStartMessage("message", "participant", "counterParty", "context", "processId", "agreement",
+                "dataset", "http://callback", "HttpData-PUSH", dataAddress, List.of("first", "second"), metadata);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <T> T read(Class<?> type, Type genericType, String json) throws IOException {
+        assertThat(provider.isReadable(type, genericType, new Annotation[0], MediaType.APPLICATION_JSON_TYPE)).isTrue();
+        var input = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        return (T) provider.readFrom((Class) type, genericType, new Annotation[0], MediaType.APPLICATION_JSON_TYPE, null, input);
+    }
+
+    private String write(Object value) throws IOException {
+        assertThat(provider.isWriteable(value.getClass(), value.getClass(), new Annotation[0], MediaType.APPLICATION_JSON_TYPE)).isTrue();
+        var output = new ByteArrayOutputStream();
+        provider.writeTo(value, value.getClass(), value.getClass(), new Annotation[0], MediaType.APPLICATION_JSON_TYPE, null, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingDataFlowStoreTest {
+
+    private final DataFlowStore delegate = mock();
+
+    @Test
+    void shouldServeFromCache_whenFlowHasBeenSaved() {
+        when(delegate.save(any())).thenReturn(Result.success());
+        var store = new CachingDataFlowStore(delegate, 100);
+
+        store.save(dataFlow("flowId"));
+        var found = store.findById("flowId");
+
+        assertThat(found.succeeded()).isTrue();
+        verify(delegate, never()).findById(anyString());
+        assertThat(store.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadThrough_whenFlowIsNotCached() {
+        when(delegate.findById("flowId")).thenReturn(Result.success(dataFlow("flowId")));
+        var store = new CachingDataFlowStore(delegate, 100);
+
+        store.findById("flowId");
+        store.findById("flowId");
+
+        verify(delegate, times(1)).findById("flowId");
+        assertThat(store.stats().misses()).isEqualTo(1);
+        assertThat(store.stats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvict_whenSaveFails() {
+        when(delegate.save(any())).thenReturn(Result.success()).thenReturn(Result.failure(new IllegalStateException()));
+        when(delegate.findById("flowId")).thenReturn(Result.success(dataFlow("flowId")));
+        var store = new CachingDataFlowStore(delegate, 100);
+        var dataFlow = dataFlow("flowId");
+        store.save(dataFlow);
+
+        store.save(dataFlow);
+        store.findById("flowId");
+
+        verify(delegate).findById("flowId");
+    }
+
+    @Test
+    void shouldKeepNewerVersion_whenSavedWhileReadingThrough() {
+        var store = new CachingDataFlowStore(delegate, 100);
+        var newer = dataFlow("flowId");
+        newer.setVersion(2);
+        when(delegate.save(any())).thenReturn(Result.success());
+        when(delegate.findById("flowId")).thenAnswer(invocation -> {
+            var older = dataFlow("flowId");
+            older.setVersion(1);
+            store.save(newer);
+            return Result.success(older);
+        });
+
+        store.findById("flowId");
+
+        assertThat(store.findById("flowId").getContent().getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotCacheDeletedFlow_whenDeletedWhileReadingThrough() {
+        var store = new CachingDataFlowStore(delegate, 100);
+        when(delegate.delete("flowId")).thenReturn(Result.success());
+        when(delegate.findById("flowId"))
+                .thenAnswer(invocation -> {
+                    store.delete("flowId");
+                    return Result.success(dataFlow("flowId"));
+                })
+                .thenReturn(Result.failure(new DataFlowNotFoundException("not found")));
+
+        store.findById("flowId");
+
+        assertThat(store.findById("flowId").failed()).isTrue();
+        verify(delegate, times(2)).findById("flowId");
+    }
+
+    @Test
+    void shouldBoundSize() {
+        when(delegate.save(any())).thenReturn(Result.success());
+        var store = new CachingDataFlowStore(delegate, 160);
+
+        IntStream.range(0, 1000).forEach(i -> store.save(dataFlow("flow-" + i)));
+
+        assertThat(store.stats().size()).isLessThanOrEqualTo(160);
+        assertThat(store.stats().evictions()).isGreaterThanOrEqualTo(840);
+    }
+
+    private DataFlow dataFlow(String id) {
+        return DataFlow.newInstance().id(id).transferType("Something-PUSH").build();
+    }
+}
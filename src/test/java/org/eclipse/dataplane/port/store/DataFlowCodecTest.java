@@ -0,0 +1,180 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DataFlowCodecTest {
+
+    @Nested
+    class RoundTrip {
+
+        @Test
+        void shouldDecodeEncodedDataFlow_whenFieldsAreRandom() {
+            var random = new Random(42);
+
+            for (var i = 0; i < 1000; i++) {
+                var dataFlow = randomDataFlow(random);
+
+                var decoded = DataFlowCodec.decode(ByteBuffer.wrap(DataFlowCodec.encode(dataFlow)));
+
+                assertThat(decoded).usingRecursiveComparison().isEqualTo(dataFlow);
+            }
+        }
+
+        @Test
+        void shouldKeepNulls_whenOptionalFieldsAreMissing() {
+            var dataFlow = DataFlow.newInstance().id("id").state(DataFlow.State.PREPARING).build();
+
+            var decoded = DataFlowCodec.decode(ByteBuffer.wrap(DataFlowCodec.encode(dataFlow)));
+
+            assertThat(decoded).usingRecursiveComparison().isEqualTo(dataFlow);
+            assertThat(decoded.getLabels()).isNull();
+            assertThat(decoded.getDataAddress()).isNull();
+        }
+
+        @Test
+        void shouldEncodeIntoReusedBuffer_whenBufferIsDirect() {
+            var buffer = ByteBuffer.allocateDirect(4096);
+            var random = new Random(7);
+
+            for (var i = 0; i < 100; i++) {
+                var dataFlow = randomDataFlow(random);
+                DataFlowCodec.encode(dataFlow, buffer.clear());
+
+                var decoded = DataFlowCodec.decode(buffer.flip());
+
+                assertThat(decoded).usingRecursiveComparison().isEqualTo(dataFlow);
+                assertThat(buffer.hasRemaining()).isFalse();
+            }
+        }
+
+        @Test
+        void shouldReadIdOnly() {
+            var dataFlow = DataFlow.newInstance().id("flow-é😀").state(DataFlow.State.STARTED).build();
+
+            assertThat(DataFlowCodec.decodeId(ByteBuffer.wrap(DataFlowCodec.encode(dataFlow)))).isEqualTo(dataFlow.getId());
+            assertThat(DataFlowCodec.decodeId(ByteBuffer.wrap(DataFlowCodec.encodeId(dataFlow.getId())))).isEqualTo(dataFlow.getId());
+        }
+    }
+
+    @Nested
+    class Compatibility {
+
+        @Test
+        void shouldSkipUnknownFields() {
+            var dataFlow = DataFlow.newInstance().id("id").state(DataFlow.State.STARTED).transferType("HttpData-PULL").version(3).build();
+            var encoded = DataFlowCodec.encode(dataFlow);
+            var buffer = ByteBuffer.allocate(encoded.length + 32).put(encoded);
+            buffer.put((byte) ((20 << 3) | 0)).put((byte) 0x96).put((byte) 0x01);
+            buffer.put((byte) ((21 << 3) | 2)).put((byte) 3).put("abc".getBytes(StandardCharsets.UTF_8));
+            buffer.put((byte) ((22 << 3) | 3)).putInt(2).put((byte) 1).put((byte) 2);
+
+            var decoded = DataFlowCodec.decode(buffer.flip());
+
+            assertThat(decoded).usingRecursiveComparison().isEqualTo(dataFlow);
+        }
+
+        @Test
+        void shouldFail_whenVersionIsNotValid() {
+            var encoded = DataFlowCodec.encode(DataFlow.newInstance().id("id").state(DataFlow.State.STARTED).build());
+            var buffer = ByteBuffer.wrap(encoded);
+            buffer.putInt(Integer.BYTES + "id".length(), 0);
+
+            assertThatThrownBy(() -> DataFlowCodec.decode(buffer))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void shouldFail_whenRecordIsTruncated() {
+            var dataFlow = DataFlow.newInstance().id("id").state(DataFlow.State.STARTED).transferType("HttpData-PULL").build();
+            var encoded = DataFlowCodec.encode(dataFlow);
+            var truncated = ByteBuffer.wrap(encoded, 0, encoded.length - "PULL".length() - 2);
+
+            assertThatThrownBy(() -> DataFlowCodec.decode(truncated))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private DataFlow randomDataFlow(Random random) {
+        var states = DataFlow.State.values();
+        var notifications = new ArrayList<DataFlowNotification>();
+        for (var i = 0; i < random.nextInt(3); i++) {
+            notifications.add(new DataFlowNotification(DataFlowNotification.Type.values()[random.nextInt(DataFlowNotification.Type.values().length)], randomString(random)));
+        }
+        return DataFlow.newInstance()
+                .id(randomString(random) + random.nextInt())
+                .state(states[random.nextInt(states.length)])
+                .transferType(random.nextBoolean() ? randomString(random) + "-PUSH" : null)
+                .callbackAddress(random.nextBoolean() ? "http://" + randomString(random) : null)
+                .terminationReason(random.nextBoolean() ? randomString(random) : null)
+                .labels(random.nextBoolean() ? randomList(random, () -> randomString(random)) : null)
+                .metadata(random.nextBoolean() ? randomMap(random, 2) : null)
+                .dataAddress(random.nextBoolean() ? randomDataAddress(random) : null)
+                .pendingNotifications(notifications)
+                .version(random.nextBoolean() ? random.nextInt(1000) : Long.MAX_VALUE - random.nextInt(1000))
+                .build();
+    }
+
+    private DataAddress randomDataAddress(Random random) {
+        var properties = random.nextBoolean() ? null : randomList(random, () -> new DataAddress.EndpointProperty(
+                randomString(random), randomString(random), random.nextBoolean() ? randomString(random) : null));
+        return new DataAddress(randomString(random), randomString(random), random.nextBoolean() ? randomString(random) : null, properties);
+    }
+
+    private Map<String, Object> randomMap(Random random, int depth) {
+        var map = new LinkedHashMap<String, Object>();
+        for (var i = 0; i < random.nextInt(5); i++) {
+            map.put(randomString(random) + i, randomValue(random, depth));
+        }
+        return map;
+    }
+
+    private Object randomValue(Random random, int depth) {
+        return switch (random.nextInt(depth > 0 ? 8 : 6)) {
+            case 0 -> null;
+            case 1 -> randomString(random);
+            case 2 -> random.nextInt();
+            case 3 -> random.nextLong();
+            case 4 -> random.nextDouble();
+            case 5 -> random.nextBoolean();
+            case 6 -> randomList(random, () -> randomValue(random, depth - 1));
+            default -> randomMap(random, depth - 1);
+        };
+    }
+
+    private <T> List<T> randomList(Random random, Supplier<T> supplier) {
+        var list = new ArrayList<T>();
+        for (var i = 0; i < random.nextInt(4); i++) {
+            list.add(supplier.get());
+        }
+        return list;
+    }
+
+    private String randomString(Random random) {
+        var alphabet = "abcXYZ-_/:.0123456789 éß中😀";
+        var builder = new StringBuilder();
+        for (var i = 0; i < random.nextInt(12); i++) {
+            var index = random.nextInt(alphabet.length() - 1);
+            if (Character.isLowSurrogate(alphabet.charAt(index))) {
+                index--;
+            }
+            builder.append(alphabet, index, Character.isHighSurrogate(alphabet.charAt(index)) ? index + 2 : index + 1);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.Result;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.STARTED;
+
+class ExpiringDataFlowStoreTest {
+
+    private final InMemoryDataFlowStore delegate = new InMemoryDataFlowStore();
+
+    @Test
+    void shouldRemoveTerminatedFlow_whenTimeToLiveElapsed() {
+        try (var store = new ExpiringDataFlowStore(delegate, RetentionPolicy.newInstance().timeToLive(Duration.ofMillis(200)).build())) {
+            store.save(dataFlow("completed", COMPLETED));
+            store.save(dataFlow("started", STARTED));
+
+            assertThat(store.findById("completed").succeeded()).isTrue();
+            await().untilAsserted(() -> assertThat(store.findById("completed").failed()).isTrue());
+            assertThat(store.findById("started").succeeded()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldRemoveOldestTerminatedFlows_whenMaxCountExceeded() {
+        try (var store = new ExpiringDataFlowStore(delegate, RetentionPolicy.newInstance().maxTerminated(3).build())) {
+            IntStream.range(0, 5).forEach(i -> store.save(dataFlow("flow-" + i, COMPLETED)));
+
+            assertThat(store.findById("flow-0").failed()).isTrue();
+            assertThat(store.findById("flow-1").failed()).isTrue();
+            assertThat(store.findById("flow-4").succeeded()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldExpireTerminatedFlowsAlreadyInStore() {
+        delegate.save(dataFlow("completed", COMPLETED));
+
+        try (var store = new ExpiringDataFlowStore(delegate, RetentionPolicy.newInstance().timeToLive(Duration.ofMillis(200)).build())) {
+            await().untilAsserted(() -> assertThat(store.findById("completed").failed()).isTrue());
+        }
+    }
+
+    @Test
+    void shouldRemoveOldestTerminatedFlow_whenNewerOneHasBeenTrackedAgain() {
+        try (var store = new ExpiringDataFlowStore(delegate, RetentionPolicy.newInstance().maxTerminated(2).build())) {
+            var first = dataFlow("first", COMPLETED);
+            var notification = DataFlowNotification.completed();
+            store.save(first);
+            store.save(dataFlow("second", COMPLETED));
+            first.addPendingNotification(notification);
+            store.save(first);
+            first.notificationDelivered(notification);
+            store.save(first);
+
+            store.save(dataFlow("third", COMPLETED));
+
+            assertThat(store.findById("first").succeeded()).isTrue();
+            assertThat(store.findById("second").failed()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldDeleteExpiredFlowsOnTheExecutor() {
+        var deletingThread = new AtomicReference<String>();
+        var delegate = new InMemoryDataFlowStore() {
+            @Override
+            public Result<Void> delete(String flowId) {
+                deletingThread.set(Thread.currentThread().getName());
+                return super.delete(flowId);
+            }
+        };
+        var executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "deleter"));
+        try (var store = new ExpiringDataFlowStore(delegate, RetentionPolicy.newInstance().timeToLive(Duration.ofMillis(200)).build(), executor)) {
+            store.save(dataFlow("completed", COMPLETED));
+
+            await().untilAsserted(() -> assertThat(store.findById("completed").failed()).isTrue());
+            assertThat(deletingThread.get()).isEqualTo("deleter");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private DataFlow dataFlow(String id, DataFlow.State state) {
+        return DataFlow.newInstance().id(id).state(state).transferType("Something-PUSH").build();
+    }
+}
@@ -0,0 +1,201 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.domain.dataflow.DataFlowNotification;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.PREPARED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.STARTED;
+
+class InMemoryDataFlowStoreTest {
+
+    private final InMemoryDataFlowStore store = new InMemoryDataFlowStore();
+
+    @Nested
+    class Save {
+
+        @Test
+        void shouldUpdate_whenVersionIsCurrent() {
+            store.save(dataFlow("1", STARTED, "Something-PUSH", "label"));
+            var dataFlow = store.findById("1").getContent();
+            dataFlow.transitionToCompleted();
+
+            var result = store.save(dataFlow);
+
+            assertThat(result.succeeded()).isTrue();
+            assertThat(dataFlow.getVersion()).isEqualTo(2);
+            assertThat(store.findById("1").getContent().getState()).isEqualTo(COMPLETED);
+        }
+
+        @Test
+        void shouldFail_whenVersionIsStale() {
+            store.save(dataFlow("1", STARTED, "Something-PUSH", "label"));
+            var first = store.findById("1").getContent();
+            var second = store.findById("1").getContent();
+            first.transitionToCompleted();
+            store.save(first);
+
+            second.transitionToTerminated("reason");
+            var result = store.save(second);
+
+            assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowVersionConflictException.class);
+            assertThat(store.findById("1").getContent().getState()).isEqualTo(COMPLETED);
+        }
+
+        @Test
+        void shouldNotChangeStoredFlow_whenReadFlowIsChangedWithoutSaving() {
+            store.save(dataFlow("1", STARTED, "Something-PUSH", "label"));
+
+            store.findById("1").getContent().transitionToCompleted();
+
+            assertThat(store.findById("1").getContent().getState()).isEqualTo(STARTED);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void shouldNotChangeStoredFlow_whenCollectionsOfReadFlowAreChanged() {
+            var nested = new ArrayList<Object>(List.of("value"));
+            var dataFlow = DataFlow.newInstance().id("1").state(STARTED)
+                    .labels(new ArrayList<>(List.of("label")))
+                    .metadata(new HashMap<>(Map.of("key", "value", "nested", nested)))
+                    .build();
+            store.save(dataFlow);
+
+            dataFlow.getLabels().add("saved-label");
+            nested.add("saved-value");
+            var read = store.findById("1").getContent();
+            read.getLabels().add("read-label");
+            read.getMetadata().put("key", "changed");
+            ((List<Object>) read.getMetadata().get("nested")).add("read-value");
+
+            var stored = store.findById("1").getContent();
+            assertThat(stored.getLabels()).containsExactly("label");
+            assertThat(stored.getMetadata()).containsEntry("key", "value").containsEntry("nested", List.of("value"));
+        }
+    }
+
+    @Nested
+    class Query {
+
+        @Test
+        void shouldReturnFlowsMatchingAllCriteria() {
+            store.save(dataFlow("1", STARTED, "Something-PUSH", "label"));
+            store.save(dataFlow("2", STARTED, "Something-PULL", "label"));
+            store.save(dataFlow("3", PREPARED, "Something-PUSH", "label"));
+            store.save(dataFlow("4", STARTED, "Something-PUSH", "another"));
+
+            var query = DataFlowQuery.newInstance().state(STARTED).transferType("Something-PUSH").label("label").build();
+            var page = store.query(query, null, 10).getContent();
+
+            assertThat(page.items()).extracting(DataFlow::getId).containsExactly("1");
+            assertThat(page.nextCursor()).isNull();
+        }
+
+        @Test
+        void shouldReflectStateTransitions() {
+            var dataFlow = dataFlow("1", STARTED, "Something-PUSH", "label");
+            store.save(dataFlow);
+
+            dataFlow.transitionToCompleted();
+            store.save(dataFlow);
+
+            assertThat(store.query(DataFlowQuery.newInstance().state(STARTED).build(), null, 10).getContent().items()).isEmpty();
+            assertThat(store.query(DataFlowQuery.newInstance().state(COMPLETED).build(), null, 10).getContent().items()).hasSize(1);
+        }
+
+        @Test
+        void shouldReturnFlowsWithPendingNotifications() {
+            var dataFlow = dataFlow("1", STARTED, "Something-PUSH", "label");
+            dataFlow.addPendingNotification(DataFlowNotification.completed());
+            store.save(dataFlow);
+            store.save(dataFlow("2", STARTED, "Something-PUSH", "label"));
+            var query = DataFlowQuery.newInstance().withPendingNotifications().build();
+
+            assertThat(store.query(query, null, 10).getContent().items()).extracting(DataFlow::getId).containsExactly("1");
+
+            dataFlow.notificationDelivered(DataFlowNotification.completed());
+            store.save(dataFlow);
+
+            assertThat(store.query(query, null, 10).getContent().items()).isEmpty();
+        }
+
+        @Test
+        void shouldPageThroughResults() {
+            IntStream.range(0, 25).forEach(i -> store.save(dataFlow("%02d".formatted(i), STARTED, "Something-PUSH", "label")));
+            var query = DataFlowQuery.newInstance().state(STARTED).build();
+
+            var first = store.query(query, null, 10).getContent();
+            var second = store.query(query, first.nextCursor(), 10).getContent();
+            var third = store.query(query, second.nextCursor(), 10).getContent();
+
+            assertThat(first.items()).extracting(DataFlow::getId).startsWith("00").endsWith("09");
+            assertThat(second.items()).extracting(DataFlow::getId).startsWith("10").endsWith("19");
+            assertThat(third.items()).hasSize(5);
+            assertThat(third.nextCursor()).isNull();
+        }
+
+        @Test
+        void shouldNotReturnFlowsThatStoppedMatching_whileQueryIsRunning() {
+            var query = DataFlowQuery.newInstance().state(STARTED).build();
+            IntStream.range(0, 100).forEach(i -> store.save(dataFlow("flow-" + i, STARTED, "Something-PUSH", "label")));
+
+            var completing = CompletableFuture.runAsync(() -> IntStream.range(0, 100).forEach(i -> {
+                var dataFlow = store.findById("flow-" + i).getContent();
+                dataFlow.transitionToCompleted();
+                store.save(dataFlow);
+            }));
+            while (!completing.isDone()) {
+                assertThat(store.query(query, null, 1000).getContent().items()).allMatch(it -> it.getState() == STARTED);
+            }
+        }
+
+        @Test
+        void shouldStreamAllResults() {
+            IntStream.range(0, 250).forEach(i -> store.save(dataFlow("flow-" + i, STARTED, "Something-PUSH", "label")));
+
+            var streamed = store.stream(DataFlowQuery.newInstance().label("label").build());
+
+            assertThat(streamed).hasSize(250);
+        }
+    }
+
+    @Nested
+    class Delete {
+
+        @Test
+        void shouldKeepIndexConsistent_whenFlowIsSavedAndDeletedConcurrently() {
+            var query = DataFlowQuery.newInstance().label("label").build();
+
+            for (var i = 0; i < 200; i++) {
+                var id = "flow-" + i;
+                var save = CompletableFuture.runAsync(() -> IntStream.range(0, 50).forEach(attempt -> store.save(dataFlow(id, STARTED, "Something-PUSH", "label"))));
+                var delete = CompletableFuture.runAsync(() -> IntStream.range(0, 50).forEach(attempt -> store.delete(id)));
+                CompletableFuture.allOf(save, delete).join();
+
+                var indexed = store.query(query, null, 1000).getContent().items().stream().anyMatch(it -> it.getId().equals(id));
+                assertThat(indexed).isEqualTo(store.findById(id).succeeded());
+            }
+        }
+    }
+
+    private DataFlow dataFlow(String id, DataFlow.State state, String transferType, String label) {
+        return DataFlow.newInstance()
+                .id(id)
+                .state(state)
+                .transferType(transferType)
+                .labels(List.of(label))
+                .build();
+    }
+}
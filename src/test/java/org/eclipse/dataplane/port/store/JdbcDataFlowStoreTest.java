@@ -0,0 +1,182 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.STARTED;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+class JdbcDataFlowStoreTest {
+
+    private final JdbcDataFlowStore store = JdbcDataFlowStore.newInstance()
+            .dataSource(dataSource())
+            .createTable(true)
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldFindSavedDataFlow() {
+        store.save(dataFlow("flowId"));
+
+        var found = store.findById("flowId").getContent();
+
+        assertThat(found.getState()).isEqualTo(STARTED);
+        assertThat(found.getLabels()).containsExactly("label");
+        assertThat(found.getMetadata()).containsEntry("key", "value");
+        assertThat(found.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFail_whenDataFlowDoesNotExist() {
+        assertThatThrownBy(store.findById("unknown")::orElseThrow).isExactlyInstanceOf(DataFlowNotFoundException.class);
+    }
+
+    @Test
+    void shouldUpdate_whenVersionIsCurrent() {
+        store.save(dataFlow("flowId"));
+        var dataFlow = store.findById("flowId").getContent();
+        dataFlow.transitionToCompleted();
+
+        var result = store.save(dataFlow);
+
+        assertThat(result.succeeded()).isTrue();
+        assertThat(dataFlow.getVersion()).isEqualTo(2);
+        assertThat(store.findById("flowId").getContent().getState()).isEqualTo(COMPLETED);
+    }
+
+    @Test
+    void shouldFail_whenVersionIsStale() {
+        store.save(dataFlow("flowId"));
+        var first = store.findById("flowId").getContent();
+        var second = store.findById("flowId").getContent();
+        store.save(first);
+
+        var result = store.save(second);
+
+        assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowVersionConflictException.class);
+    }
+
+    @Test
+    void shouldIsolateFailingSave_whenSavedConcurrently() {
+        store.save(dataFlow("duplicated"));
+
+        var saves = IntStream.range(0, 200)
+                .mapToObj(i -> i == 100 ? dataFlow("duplicated") : dataFlow("flow-" + i))
+                .map(it -> CompletableFuture.supplyAsync(() -> store.save(it)))
+                .toList();
+
+        var results = saves.stream().map(CompletableFuture::join).toList();
+        assertThat(results).filteredOn(it -> it.failed()).hasSize(1);
+        assertThat(store.findById("flow-199").succeeded()).isTrue();
+    }
+
+    @Test
+    void shouldKeepWriting_whenStatementsCannotBePrepared() throws SQLException {
+        var failing = new AtomicBoolean();
+        var dataSource = spy(dataSource());
+        doAnswer(invocation -> {
+            var connection = spy((Connection) invocation.callRealMethod());
+            if (failing.getAndSet(false)) {
+                doThrow(new SQLException("cannot prepare")).when(connection).prepareStatement(anyString());
+            }
+            return connection;
+        }).when(dataSource).getConnection();
+        try (var store = JdbcDataFlowStore.newInstance().dataSource(dataSource).createTable(true).build()) {
+            failing.set(true);
+
+            var saved = CompletableFuture.supplyAsync(() -> store.save(dataFlow("flowId")));
+
+            assertThat(saved).succeedsWithin(5, TimeUnit.SECONDS).satisfies(it -> assertThat(it.succeeded()).isTrue());
+            assertThat(store.save(dataFlow("another")).succeeded()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldDetectStaleVersion_whenDriverDoesNotReportBatchUpdateCounts() throws SQLException {
+        var dataSource = spy(dataSource());
+        doAnswer(invocation -> {
+            var connection = spy((Connection) invocation.callRealMethod());
+            doAnswer(prepare -> {
+                var statement = spy((PreparedStatement) prepare.callRealMethod());
+                doAnswer(execute -> {
+                    var counts = (int[]) execute.callRealMethod();
+                    Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                    return counts;
+                }).when(statement).executeBatch();
+                return statement;
+            }).when(connection).prepareStatement(anyString());
+            return connection;
+        }).when(dataSource).getConnection();
+        try (var store = JdbcDataFlowStore.newInstance().dataSource(dataSource).createTable(true).build()) {
+            store.save(dataFlow("flowId"));
+            var first = store.findById("flowId").getContent();
+            var second = store.findById("flowId").getContent();
+            store.save(first);
+
+            var result = store.save(second);
+
+            assertThat(first.getVersion()).isEqualTo(2);
+            assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowVersionConflictException.class);
+        }
+    }
+
+    @Test
+    void shouldQueryByStateAndLabel() {
+        IntStream.range(0, 30).forEach(i -> store.save(dataFlow("flow-%02d".formatted(i))));
+        var completed = store.findById("flow-03").getContent();
+        completed.transitionToCompleted();
+        store.save(completed);
+
+        var query = DataFlowQuery.newInstance().state(STARTED).label("label").build();
+        var first = store.query(query, null, 20).getContent();
+        var second = store.query(query, first.nextCursor(), 20).getContent();
+
+        assertThat(first.items()).hasSize(20).extracting(DataFlow::getId).doesNotContain("flow-03");
+        assertThat(second.items()).hasSize(9);
+        assertThat(second.nextCursor()).isNull();
+        assertThat(store.stream(DataFlowQuery.newInstance().state(COMPLETED).build())).extracting(DataFlow::getId).containsExactly("flow-03");
+    }
+
+    private DataFlow dataFlow(String id) {
+        return DataFlow.newInstance()
+                .id(id)
+                .state(STARTED)
+                .transferType("Something-PUSH")
+                .labels(List.of("label"))
+                .metadata(Map.of("key", "value"))
+                .build();
+    }
+
+    private JdbcDataSource dataSource() {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1".formatted(UUID.randomUUID()));
+        return dataSource;
+    }
+}
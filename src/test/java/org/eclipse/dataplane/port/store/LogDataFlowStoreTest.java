@@ -0,0 +1,181 @@
+package org.eclipse.dataplane.port.store;
+
+import org.eclipse.dataplane.domain.DataAddress;
+import org.eclipse.dataplane.domain.dataflow.DataFlow;
+import org.eclipse.dataplane.port.exception.DataFlowNotFoundException;
+import org.eclipse.dataplane.port.exception.DataFlowVersionConflictException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.COMPLETED;
+import static org.eclipse.dataplane.domain.dataflow.DataFlow.State.STARTED;
+
+class LogDataFlowStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldFindSavedDataFlow() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            store.save(dataFlow("flowId", STARTED));
+
+            var found = store.findById("flowId").getContent();
+
+            assertThat(found.getState()).isEqualTo(STARTED);
+            assertThat(found.getTransferType()).isEqualTo("Something-PUSH");
+            assertThat(found.getLabels()).containsExactly("label");
+            assertThat(found.getMetadata()).containsEntry("key", "value").containsEntry("number", 42);
+            assertThat(found.getDataAddress().endpointProperties()).hasSize(1);
+        }
+    }
+
+    @Test
+    void shouldSaveAllDataFlows() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            var results = store.saveAll(List.of(dataFlow("first", STARTED), dataFlow("second", COMPLETED)));
+
+            assertThat(results).allMatch(it -> it.succeeded());
+            assertThat(store.findById("first").getContent().getState()).isEqualTo(STARTED);
+            assertThat(store.findById("second").getContent().getState()).isEqualTo(COMPLETED);
+        }
+    }
+
+    @Test
+    void shouldFail_whenDataFlowDoesNotExist() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            assertThatThrownBy(store.findById("unknown")::orElseThrow).isExactlyInstanceOf(DataFlowNotFoundException.class);
+        }
+    }
+
+    @Test
+    void shouldRecoverLatestState_whenReopened() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).segmentSize(1024).build()) {
+            IntStream.range(0, 50).forEach(i -> store.save(dataFlow("flow-" + i, STARTED)));
+            var completed = store.findById("flow-7").getContent();
+            completed.transitionToCompleted();
+            store.save(completed);
+        }
+
+        try (var store = LogDataFlowStore.newInstance().directory(directory).segmentSize(1024).build()) {
+            assertThat(IntStream.range(0, 50).mapToObj(i -> store.findById("flow-" + i)).allMatch(it -> it.succeeded())).isTrue();
+            assertThat(store.findById("flow-7").getContent().getState()).isEqualTo(COMPLETED);
+            assertThat(store.findById("flow-7").getContent().getVersion()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldFail_whenVersionIsStale() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            store.save(dataFlow("flowId", STARTED));
+            var first = store.findById("flowId").getContent();
+            var second = store.findById("flowId").getContent();
+            first.transitionToCompleted();
+            store.save(first);
+
+            second.transitionToTerminated("reason");
+            var result = store.save(second);
+
+            assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowVersionConflictException.class);
+            assertThat(second.getVersion()).isEqualTo(1);
+            assertThat(store.findById("flowId").getContent().getState()).isEqualTo(COMPLETED);
+        }
+    }
+
+    @Test
+    void shouldFail_whenVersionIsStaleAfterReopen() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            store.save(dataFlow("flowId", STARTED));
+        }
+
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            var result = store.save(dataFlow("flowId", STARTED));
+
+            assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(DataFlowVersionConflictException.class);
+        }
+    }
+
+    @Test
+    void shouldDiscardTornRecord_whenReopened() throws IOException {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            store.save(dataFlow("flowId", STARTED));
+        }
+        var segment = Files.list(directory).findFirst().orElseThrow();
+        try (var channel = FileChannel.open(segment, READ, WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            var end = 9 + buffer.getInt(0);
+            buffer.putInt(end, 100);
+            buffer.putInt(end + 4, 12345);
+        }
+
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            assertThat(store.findById("flowId").getContent().getState()).isEqualTo(STARTED);
+
+            store.save(dataFlow("another", STARTED));
+        }
+
+        try (var store = LogDataFlowStore.newInstance().directory(directory).build()) {
+            assertThat(store.findById("flowId").succeeded()).isTrue();
+            assertThat(store.findById("another").succeeded()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldFailWithoutChangingVersion_whenClosed() {
+        var store = LogDataFlowStore.newInstance().directory(directory).build();
+        var dataFlow = dataFlow("flowId", STARTED);
+        store.save(dataFlow);
+        store.close();
+
+        var result = store.save(dataFlow);
+        var results = store.saveAll(List.of(dataFlow));
+
+        assertThatThrownBy(result::orElseThrow).isExactlyInstanceOf(IllegalStateException.class);
+        assertThat(results).allMatch(it -> it.failed());
+        assertThat(dataFlow.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCompactSupersededSegments() {
+        try (var store = LogDataFlowStore.newInstance().directory(directory).segmentSize(1024)
+                .compactionInterval(Duration.ofMillis(50)).build()) {
+            var saves = IntStream.range(0, 5)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        var dataFlow = dataFlow("flow-" + i, STARTED);
+                        IntStream.range(0, 100).forEach(it -> store.save(dataFlow));
+                    }))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(saves).join();
+
+            await().untilAsserted(() -> assertThat(Files.list(directory).count()).isLessThanOrEqualTo(3));
+            assertThat(IntStream.range(0, 5).mapToObj(i -> store.findById("flow-" + i)).allMatch(it -> it.succeeded())).isTrue();
+        }
+    }
+
+    private DataFlow dataFlow(String id, DataFlow.State state) {
+        return DataFlow.newInstance()
+                .id(id)
+                .state(state)
+                .transferType("Something-PUSH")
+                .labels(List.of("label"))
+                .metadata(Map.of("key", "value", "number", 42))
+                .dataAddress(new DataAddress("type", "endpointType", "endpoint",
+                        List.of(new DataAddress.EndpointProperty("type", "name", "value"))))
+                .build();
+    }
+}